@@ -0,0 +1,49 @@
+package com.edoc.portal.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncConfig.class);
+
+    // Background work on stored documents (renditions, normalization). Bounded so a burst of uploads
+    // cannot starve request threads or the connection pool. Overflow is dropped here; DocumentPipeline.sweep
+    // finds those documents by their missing preview and processes them once the queue has drained.
+    @Bean
+    public ThreadPoolTaskExecutor documentProcessingExecutor(
+            @Value("${portal.documents.executor.pool-size:2}") int poolSize,
+            @Value("${portal.documents.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("doc-processing-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+                log.warn("Document processing queue is full; the next sweep will process these documents."));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Threads that write streamed responses (ZIP bundles). They block on slow clients, so they are kept
+    // apart from request threads and from background processing; a full queue rejects the download.
+    @Bean
+    public ThreadPoolTaskExecutor documentStreamingExecutor(
+            @Value("${portal.documents.streaming.pool-size:8}") int poolSize,
+            @Value("${portal.documents.streaming.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("doc-streaming-");
+        return executor;
+    }
+}
@@ -0,0 +1,62 @@
+package com.edoc.portal.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Moves the pooled id generators in id_generators past ids handed out by AUTO_INCREMENT before the switch.
+// Hibernate's pooled optimizer hands out (next_val - 50, next_val] on its next fetch, so next_val must be at
+// least the largest existing id plus the allocation size. Only ever raises the value, so a second instance
+// starting at the same time, or a restart, is harmless. Runs before the web server accepts requests.
+@Component
+@DependsOn("entityManagerFactory")
+public class IdGeneratorAlignment {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorAlignment.class);
+    // Must match allocationSize of the @TableGenerator on each entity whose table is listed here.
+    private static final int ALLOCATION_SIZE = 50;
+    private static final List<String> TABLES =
+            List.of("applications", "application_documents", "document_renditions", "purge_tasks", "issued_documents");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdGeneratorAlignment(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void align() {
+        for (String table : TABLES) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            long floor = maxId + ALLOCATION_SIZE + 1;
+            int raised = jdbcTemplate.update(
+                    "UPDATE id_generators SET next_val = ? WHERE sequence_name = ? AND next_val < ?", floor, table, floor);
+            if (raised == 0) {
+                raised = insertIfMissing(table, floor);
+            }
+            if (raised > 0 && maxId > 0) {
+                log.info("Moved the id generator for {} past existing id {}.", table, maxId);
+            }
+        }
+    }
+
+    private int insertIfMissing(String table, long floor) {
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM id_generators WHERE sequence_name = ?", Integer.class, table);
+        if (rows != null && rows > 0) {
+            return 0;
+        }
+        try {
+            return jdbcTemplate.update("INSERT INTO id_generators (sequence_name, next_val) VALUES (?, ?)", table, floor);
+        } catch (DuplicateKeyException ex) {
+            // Another instance inserted the row first; its value is at least as high.
+            return 0;
+        }
+    }
+}
@@ -63,7 +63,7 @@ public class SecurityConfig {
                     .requestMatchers(
                             "/", "/login", "/register",
                             "/admin/login", "/csc/login", "/csc/register",
-                            "/css/**", "/images/**"
+                            "/css/**", "/images/**", "/js/**"
                     ).permitAll()
                     .requestMatchers("/admin/**").hasRole("ADMIN")
                     .requestMatchers("/csc/**").hasRole("CSC")
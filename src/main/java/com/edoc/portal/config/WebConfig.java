@@ -0,0 +1,28 @@
+package com.edoc.portal.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor documentStreamingExecutor;
+
+    @Value("${portal.documents.streaming.timeout-ms:600000}")
+    private long streamingTimeoutMs;
+
+    public WebConfig(@Qualifier("documentStreamingExecutor") ThreadPoolTaskExecutor documentStreamingExecutor) {
+        this.documentStreamingExecutor = documentStreamingExecutor;
+    }
+
+    // Streamed bodies outlive the container's default async timeout when a bundle is large or the link is slow.
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(documentStreamingExecutor);
+        configurer.setDefaultTimeout(streamingTimeoutMs);
+    }
+}
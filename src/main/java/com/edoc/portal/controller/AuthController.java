@@ -1,7 +1,6 @@
 package com.edoc.portal.controller;
 
-import com.edoc.portal.entity.User;
-import com.edoc.portal.enums.Role;
+import com.edoc.portal.dto.CscUserSummary;
 import com.edoc.portal.service.PortalService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -133,12 +132,8 @@ public class AuthController {
 
     @GetMapping("/admin/dashboard")
     public String adminDashboard(Model model) {
-        model.addAttribute("activeCscRequests", portalService.getCscUsers().stream()
-                .filter(u -> !"DELETED".equalsIgnoreCase(u.getStatus()))
-                .toList());
-        model.addAttribute("deletedCscRequests", portalService.getCscUsers().stream()
-                .filter(u -> "DELETED".equalsIgnoreCase(u.getStatus()))
-                .toList());
+        model.addAttribute("activeCscRequests", portalService.getActiveCscSummaries());
+        model.addAttribute("deletedCscRequests", portalService.getDeletedCscSummaries());
         return "admin-dashboard";
     }
 
@@ -162,12 +157,12 @@ public class AuthController {
 
     @GetMapping("/admin/csc-users/edit/{id}")
     public String editCscForm(@PathVariable Long id, Model model, RedirectAttributes redirectAttributes) {
-        User user = portalService.findUserById(id).orElse(null);
-        if (user == null || user.getRole() != Role.CSC) {
+        CscUserSummary cscUser = portalService.getCscUser(id).orElse(null);
+        if (cscUser == null) {
             redirectAttributes.addFlashAttribute("error", "CSC user not found.");
             return "redirect:/admin/dashboard";
         }
-        model.addAttribute("cscRequest", user);
+        model.addAttribute("cscRequest", cscUser);
         return "admin-csc-edit";
     }
 
@@ -181,22 +176,12 @@ public class AuthController {
                           @RequestParam String usernameEmail,
                           @RequestParam(required = false) String password,
                           RedirectAttributes redirectAttributes) {
-        User user = portalService.findUserById(id).orElse(null);
-        if (user == null || user.getRole() != Role.CSC) {
-            redirectAttributes.addFlashAttribute("error", "CSC user not found.");
+        try {
+            portalService.updateCscUser(id, ownerName, usernameEmail, password, cscPortalName, cscId, mobileNumber, cscCenterAddress);
+        } catch (IllegalArgumentException ex) {
+            redirectAttributes.addFlashAttribute("error", ex.getMessage());
             return "redirect:/admin/dashboard";
         }
-
-        user.setCscPortalName(cscPortalName);
-        user.setOwnerName(ownerName);
-        user.setCscId(cscId);
-        user.setMobileNumber(mobileNumber);
-        user.setCscCenterAddress(cscCenterAddress);
-        user.setUsernameEmail(usernameEmail);
-        if (password != null && !password.isBlank()) {
-            user.setPassword(portalService.encodePassword(password));
-        }
-        portalService.saveUser(user);
         redirectAttributes.addFlashAttribute("success", "CSC user updated.");
         return "redirect:/admin/dashboard";
     }
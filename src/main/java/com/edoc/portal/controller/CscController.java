@@ -1,11 +1,25 @@
 package com.edoc.portal.controller;
 
-import com.edoc.portal.entity.Application;
 import com.edoc.portal.entity.User;
 import com.edoc.portal.enums.ApplicationStatus;
+import com.edoc.portal.dto.ApplicationDetailView;
+import com.edoc.portal.dto.ApplicationSummary;
+import com.edoc.portal.dto.BulkCustomerResult;
+import com.edoc.portal.dto.BulkStatusResult;
+import com.edoc.portal.dto.CustomerSummary;
+import com.edoc.portal.dto.DocumentMetadata;
+import com.edoc.portal.dto.KeysetPage;
+import com.edoc.portal.enums.CustomerAction;
+import com.edoc.portal.enums.RenditionKind;
+import com.edoc.portal.service.IssuedDocumentExportService;
 import com.edoc.portal.service.PortalService;
+import com.edoc.portal.service.RenditionService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -19,21 +33,48 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.io.IOException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/csc")
 public class CscController {
 
+    private static final List<String> PENDING_STATUSES = List.of("PENDING");
+    private static final List<String> APPLIED_STATUSES = List.of("APPLIED", "IN_PROCESS");
+    private static final List<String> COMPLETED_STATUSES = List.of("SUCCESS", "REJECTED", "APPROVED", "ISSUED");
+
     private final PortalService portalService;
+    private final RenditionService renditionService;
+    private final IssuedDocumentExportService issuedDocumentExportService;
+
+    @Value("${portal.csc.customers.page-size:50}")
+    private int customerPageSize;
+
+    @Value("${portal.csc.applications.pending-page-size:25}")
+    private int pendingPageSize;
+
+    @Value("${portal.csc.applications.applied-page-size:25}")
+    private int appliedPageSize;
 
-    public CscController(PortalService portalService) {
+    @Value("${portal.csc.applications.completed-page-size:50}")
+    private int completedPageSize;
+
+    public CscController(PortalService portalService,
+                         RenditionService renditionService,
+                         IssuedDocumentExportService issuedDocumentExportService) {
         this.portalService = portalService;
+        this.renditionService = renditionService;
+        this.issuedDocumentExportService = issuedDocumentExportService;
     }
 
     @GetMapping("/dashboard")
@@ -42,17 +83,28 @@ public class CscController {
     }
 
     @GetMapping("/customers")
-    public String customers(Authentication auth, Model model) {
+    public String customers(@RequestParam(required = false) String deactivatedAfter,
+                            @RequestParam(required = false) String activeAfter,
+                            Authentication auth,
+                            Model model) {
         String cscEmail = currentEmail(auth);
-        var deactivatedCustomers = portalService.getPendingCustomersForCsc(cscEmail);
-        model.addAttribute("deactivatedCustomers", deactivatedCustomers);
-        model.addAttribute("activeCustomers", portalService.getActiveCustomersForCsc(cscEmail));
+        KeysetPage<CustomerSummary> deactivated = portalService.getPendingCustomersForCsc(cscEmail, deactivatedAfter, customerPageSize);
+        KeysetPage<CustomerSummary> active = portalService.getActiveCustomersForCsc(cscEmail, activeAfter, customerPageSize);
+        model.addAttribute("deactivatedCustomers", deactivated.items());
+        model.addAttribute("activeCustomers", active.items());
+        model.addAttribute("deactivatedAfter", blankToNull(deactivatedAfter));
+        model.addAttribute("activeAfter", blankToNull(activeAfter));
+        model.addAttribute("deactivatedNext", deactivated.nextCursor());
+        model.addAttribute("activeNext", active.nextCursor());
         return "csc-manage-customers";
     }
 
     @GetMapping("/manage-customers")
-    public String manageCustomers(Authentication auth, Model model) {
-        return customers(auth, model);
+    public String manageCustomers(@RequestParam(required = false) String deactivatedAfter,
+                                  @RequestParam(required = false) String activeAfter,
+                                  Authentication auth,
+                                  Model model) {
+        return customers(deactivatedAfter, activeAfter, auth, model);
     }
 
     @PostMapping("/customers/manual")
@@ -109,20 +161,52 @@ public class CscController {
         return "redirect:/csc/customers";
     }
 
+    // Multi-select from the customers page; the summary lists which ids changed and why others did not.
+    @PostMapping("/customers/bulk")
+    public String bulkUpdateCustomers(@RequestParam(required = false) List<Long> ids,
+                                      @RequestParam String action,
+                                      Authentication auth,
+                                      RedirectAttributes redirectAttributes) {
+        try {
+            BulkCustomerResult result = portalService.updateCustomersForCsc(currentEmail(auth),
+                    ids == null ? List.of() : ids, CustomerAction.parse(action));
+            redirectAttributes.addFlashAttribute("bulkResult", result);
+            redirectAttributes.addFlashAttribute("success", bulkSummary(result));
+        } catch (IllegalArgumentException ex) {
+            redirectAttributes.addFlashAttribute("error", ex.getMessage());
+        }
+        return "redirect:/csc/customers";
+    }
+
     @GetMapping("/applications")
-    public String applications(Authentication auth, Model model) {
+    public String applications(@RequestParam(required = false) String pendingAfter,
+                               @RequestParam(required = false) String appliedAfter,
+                               @RequestParam(required = false) String successAfter,
+                               Authentication auth,
+                               Model model) {
         String cscEmail = currentEmail(auth);
-        List<Application> all = portalService.getAllApplicationsForCsc(cscEmail);
-        model.addAttribute("applications", all);
-        model.addAttribute("pendingList", all.stream().filter(a -> hasStatus(a, "PENDING")).toList());
-        model.addAttribute("appliedList", all.stream().filter(a -> hasStatus(a, "APPLIED", "IN_PROCESS")).toList());
-        model.addAttribute("successList", all.stream().filter(a -> hasStatus(a, "SUCCESS", "REJECTED", "APPROVED", "ISSUED")).toList());
+        KeysetPage<ApplicationSummary> pending = portalService.getApplicationsForCsc(cscEmail, PENDING_STATUSES, pendingAfter, pendingPageSize);
+        KeysetPage<ApplicationSummary> applied = portalService.getApplicationsForCsc(cscEmail, APPLIED_STATUSES, appliedAfter, appliedPageSize);
+        KeysetPage<ApplicationSummary> success = portalService.getApplicationsForCsc(cscEmail, COMPLETED_STATUSES, successAfter, completedPageSize);
+        model.addAttribute("pendingList", pending.items());
+        model.addAttribute("appliedList", applied.items());
+        model.addAttribute("successList", success.items());
+        model.addAttribute("pendingAfter", blankToNull(pendingAfter));
+        model.addAttribute("appliedAfter", blankToNull(appliedAfter));
+        model.addAttribute("successAfter", blankToNull(successAfter));
+        model.addAttribute("pendingNext", pending.nextCursor());
+        model.addAttribute("appliedNext", applied.nextCursor());
+        model.addAttribute("successNext", success.nextCursor());
         return "csc-manage-applications";
     }
 
     @GetMapping("/manage-applications")
-    public String manageApplications(Authentication auth, Model model) {
-        return applications(auth, model);
+    public String manageApplications(@RequestParam(required = false) String pendingAfter,
+                                     @RequestParam(required = false) String appliedAfter,
+                                     @RequestParam(required = false) String successAfter,
+                                     Authentication auth,
+                                     Model model) {
+        return applications(pendingAfter, appliedAfter, successAfter, auth, model);
     }
 
     @GetMapping("/application/{id}")
@@ -132,20 +216,18 @@ public class CscController {
                                     Model model,
                                     Authentication auth,
                                     RedirectAttributes redirectAttributes) {
-        Application app = portalService.findApplicationById(id).orElse(null);
+        ApplicationDetailView app = portalService.getApplicationForCsc(id, currentEmail(auth)).orElse(null);
         if (app == null) {
             redirectAttributes.addFlashAttribute("error", "Application not found.");
             return "redirect:/csc/applications";
         }
-        if (!portalService.isApplicationAssignedToCsc(id, currentEmail(auth))) {
-            redirectAttributes.addFlashAttribute("error", "You are not authorized to view this application.");
-            return "redirect:/csc/applications";
-        }
 
-        String selectedStatus = status == null || status.isBlank() ? app.getStatus() : status;
+        String selectedStatus = status == null || status.isBlank() ? app.status() : status;
         model.addAttribute("app", app);
         model.addAttribute("application", app);
-        model.addAttribute("customer", app.getCustomer());
+        model.addAttribute("customer", app.customer());
+        List<DocumentMetadata> documents = portalService.getUploadedDocumentMetadata(id);
+        model.addAttribute("documents", documents);
         model.addAttribute("statuses", List.of(
                 ApplicationStatus.PENDING,
                 ApplicationStatus.APPLIED,
@@ -154,6 +236,12 @@ public class CscController {
         ));
         model.addAttribute("selectedStatus", selectedStatus);
         model.addAttribute("previewDocId", previewDocId);
+        model.addAttribute("previewDigest", documents.stream()
+                .filter(doc -> doc.id().equals(previewDocId))
+                .map(DocumentMetadata::digest)
+                .findFirst()
+                .orElse(null));
+        model.addAttribute("previewRendition", renditionService.hasPreview(previewDocId));
         return "csc-application-detail";
     }
 
@@ -165,32 +253,41 @@ public class CscController {
                                @RequestParam(required = false) String rejectionMessage,
                                Authentication auth,
                                RedirectAttributes redirectAttributes) {
-        if (!portalService.isApplicationAssignedToCsc(id, currentEmail(auth))) {
-            redirectAttributes.addFlashAttribute("error", "You are not authorized to update this application.");
-            return "redirect:/csc/applications";
-        }
         try {
             String finalMessage = (rejectionMessage != null && !rejectionMessage.isBlank()) ? rejectionMessage : message;
-            portalService.updateApplicationStatus(id, status, finalMessage, issuedDocument);
+            portalService.updateApplicationStatus(id, currentEmail(auth), status, finalMessage, issuedDocument);
             redirectAttributes.addFlashAttribute("success", "Application status updated.");
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            redirectAttributes.addFlashAttribute("error", "The application was changed by someone else. Please review it and try again.");
         } catch (Exception ex) {
             redirectAttributes.addFlashAttribute("error", ex.getMessage());
         }
         return "redirect:/csc/application/" + id;
     }
 
-    @GetMapping("/application/document/{docId}/download")
-    public ResponseEntity<?> downloadApplicationDocument(@PathVariable Long docId, Authentication auth) {
-        Long appId = docId / 1000L;
-        if (!portalService.isApplicationAssignedToCsc(appId, currentEmail(auth))) {
-            return ResponseEntity.status(403).build();
+    // Multi-select from the pending and applied tables. Each value is "id:version" as listed, so rows changed since
+    // the page was loaded are reported back instead of overwritten.
+    @PostMapping("/applications/bulk-status")
+    public String bulkUpdateApplicationStatus(@RequestParam(required = false) List<String> selected,
+                                              @RequestParam String status,
+                                              Authentication auth,
+                                              RedirectAttributes redirectAttributes) {
+        try {
+            BulkStatusResult result = portalService.updateApplicationStatusesForCsc(currentEmail(auth),
+                    listedVersions(selected), status);
+            redirectAttributes.addFlashAttribute("bulkResult", result);
+            redirectAttributes.addFlashAttribute("success", bulkSummary(result));
+        } catch (IllegalArgumentException ex) {
+            redirectAttributes.addFlashAttribute("error", ex.getMessage());
         }
+        return "redirect:/csc/applications";
+    }
+
+    @GetMapping("/documents/{docId}/download")
+    public ResponseEntity<?> downloadApplicationDocument(@PathVariable Long docId, NativeWebRequest request, Authentication auth) {
         try {
-            PortalService.DocumentFile file = portalService.getUploadedDocumentByPseudoId(docId);
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.fileName() + "\"")
-                    .contentType(MediaType.parseMediaType(file.contentType()))
-                    .body(file.bytes());
+            PortalService.DocumentFile file = portalService.getUploadedDocumentForCsc(docId, currentEmail(auth));
+            return DocumentResponses.attachment(request, file, portalService::openContent);
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
         } catch (IOException ex) {
@@ -198,17 +295,11 @@ public class CscController {
         }
     }
 
-    @GetMapping("/application/document/{docId}/view")
-    public ResponseEntity<?> viewApplicationDocument(@PathVariable Long docId, Authentication auth) {
-        Long appId = docId / 1000L;
-        if (!portalService.isApplicationAssignedToCsc(appId, currentEmail(auth))) {
-            return ResponseEntity.status(403).build();
-        }
+    @GetMapping("/documents/{docId}/view")
+    public ResponseEntity<?> viewApplicationDocument(@PathVariable Long docId, NativeWebRequest request, Authentication auth) {
         try {
-            PortalService.DocumentFile file = portalService.getUploadedDocumentByPseudoId(docId);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(file.contentType()))
-                    .body(file.bytes());
+            PortalService.DocumentFile file = portalService.getUploadedDocumentForCsc(docId, currentEmail(auth));
+            return DocumentResponses.inline(request, file, portalService::openContent);
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
         } catch (IOException ex) {
@@ -216,17 +307,41 @@ public class CscController {
         }
     }
 
-    @GetMapping("/application/{id}/download-issued")
-    public ResponseEntity<?> downloadIssued(@PathVariable Long id, Authentication auth) {
-        if (!portalService.isApplicationAssignedToCsc(id, currentEmail(auth))) {
-            return ResponseEntity.status(403).build();
+    @GetMapping("/documents/{docId}/preview")
+    public ResponseEntity<?> previewApplicationDocument(@PathVariable Long docId,
+                                                        @RequestParam(defaultValue = "PREVIEW") RenditionKind kind,
+                                                        NativeWebRequest request,
+                                                        Authentication auth) {
+        try {
+            PortalService.DocumentFile file = portalService.getDocumentRenditionForCsc(docId, currentEmail(auth), kind);
+            return DocumentResponses.inline(request, file, portalService::openContent);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+        } catch (IOException ex) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unable to preview document.");
         }
+    }
+
+    @GetMapping("/application/{id}/documents.zip")
+    public ResponseEntity<StreamingResponseBody> downloadApplicationDocuments(@PathVariable Long id, Authentication auth) {
         try {
-            PortalService.DocumentFile file = portalService.getIssuedDocumentFile(id, "", true);
+            List<DocumentMetadata> documents = portalService.getUploadedDocumentsForCsc(id, currentEmail(auth));
+            StreamingResponseBody body = out -> portalService.writeDocumentBundle(documents, out);
             return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.fileName() + "\"")
-                    .contentType(MediaType.parseMediaType(file.contentType()))
-                    .body(file.bytes());
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename("application-" + id + "-documents.zip").build().toString())
+                    .contentType(MediaType.parseMediaType("application/zip"))
+                    .body(body);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    @GetMapping("/application/{id}/download-issued")
+    public ResponseEntity<?> downloadIssued(@PathVariable Long id, NativeWebRequest request, Authentication auth) {
+        try {
+            PortalService.DocumentFile file = portalService.getIssuedDocumentForCsc(id, currentEmail(auth));
+            return DocumentResponses.attachment(request, file, portalService::openContent);
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
         } catch (IOException ex) {
@@ -234,26 +349,70 @@ public class CscController {
         }
     }
 
+    @GetMapping("/issued-documents/export.zip")
+    public ResponseEntity<StreamingResponseBody> exportIssuedDocuments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long afterId,
+            Authentication auth) {
+        try {
+            issuedDocumentExportService.validateRange(from, to);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (issuedDocumentExportService.isBusy()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        String cscEmail = currentEmail(auth);
+        StreamingResponseBody body = out -> issuedDocumentExportService.export(cscEmail, from, to, afterId, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("issued-documents-" + from + "-to-" + to + ".zip").build().toString())
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
     @GetMapping("/logout")
     public String logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
         new SecurityContextLogoutHandler().logout(request, response, authentication);
         return "redirect:/";
     }
 
-    private String currentEmail(Authentication auth) {
-        return auth == null || auth.getName() == null ? "" : auth.getName().trim().toLowerCase(Locale.ROOT);
+    private String bulkSummary(BulkCustomerResult result) {
+        String verb = switch (result.action()) {
+            case APPROVE -> "Activated";
+            case DEACTIVATE -> "Deactivated";
+            case REMOVE -> "Deleted";
+        };
+        return verb + " " + result.updated().size() + " of " + result.requested() + " selected customer(s).";
+    }
+
+    private String bulkSummary(BulkStatusResult result) {
+        String target = "APPLIED".equals(result.status()) ? "Applied" : "Pending";
+        return "Moved " + result.updated().size() + " of " + result.requested() + " selected application(s) to " + target + ".";
     }
 
-    private boolean hasStatus(Application application, String... statuses) {
-        if (application == null || application.getStatus() == null) {
-            return false;
+    private Map<Long, Long> listedVersions(List<String> selected) {
+        Map<Long, Long> versions = new LinkedHashMap<>();
+        if (selected == null) {
+            return versions;
         }
-        String actual = application.getStatus().trim().toUpperCase(Locale.ROOT);
-        for (String status : statuses) {
-            if (status != null && actual.equals(status.toUpperCase(Locale.ROOT))) {
-                return true;
+        for (String value : selected) {
+            int separator = value.indexOf(':');
+            try {
+                versions.put(Long.valueOf(value.substring(0, separator)), Long.valueOf(value.substring(separator + 1)));
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Invalid application selection.");
             }
         }
-        return false;
+        return versions;
+    }
+
+    private String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private String currentEmail(Authentication auth) {
+        return auth == null || auth.getName() == null ? "" : auth.getName().trim().toLowerCase(Locale.ROOT);
     }
 }
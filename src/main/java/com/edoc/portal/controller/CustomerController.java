@@ -1,12 +1,11 @@
 package com.edoc.portal.controller;
 
-import com.edoc.portal.entity.Application;
+import com.edoc.portal.dto.ApplicationSummary;
 import com.edoc.portal.service.PortalService;
+import com.edoc.portal.service.UploadSessionService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.authentication.logout.SecurityContextLogoutHandler;
@@ -15,12 +14,15 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @Controller
@@ -28,14 +30,16 @@ import java.util.List;
 public class CustomerController {
 
     private final PortalService portalService;
+    private final UploadSessionService uploadSessionService;
 
-    public CustomerController(PortalService portalService) {
+    public CustomerController(PortalService portalService, UploadSessionService uploadSessionService) {
         this.portalService = portalService;
+        this.uploadSessionService = uploadSessionService;
     }
 
     @GetMapping("/dashboard")
     public String dashboard(Authentication auth, Model model) {
-        List<Application> applications = portalService.getCustomerApplications(auth.getName());
+        List<ApplicationSummary> applications = portalService.getCustomerApplications(auth.getName());
         model.addAttribute("requests", applications);
         return "customer-dashboard";
     }
@@ -55,10 +59,11 @@ public class CustomerController {
                         @RequestParam(required = false) String description,
                         @RequestParam(required = false, defaultValue = "false") boolean paymentDone,
                         @RequestParam(required = false) MultipartFile[] documents,
+                        @RequestParam(required = false) List<String> uploadIds,
                         Authentication auth,
                         RedirectAttributes redirectAttributes) {
         try {
-            portalService.applyForService(auth.getName(), serviceType, name, mobile, description, paymentDone, documents);
+            portalService.applyForService(auth.getName(), serviceType, name, mobile, description, paymentDone, documents, uploadIds);
             redirectAttributes.addFlashAttribute("success", "Application submitted.");
         } catch (Exception ex) {
             redirectAttributes.addFlashAttribute("error", ex.getMessage());
@@ -66,6 +71,60 @@ public class CustomerController {
         return "redirect:/customer/dashboard";
     }
 
+    // Resumable upload API used by the apply form: init, PUT chunks at the reported offset, complete.
+    @PostMapping("/uploads")
+    public ResponseEntity<?> startUpload(@RequestParam String fileName,
+                                         @RequestParam(required = false) String contentType,
+                                         @RequestParam long size,
+                                         Authentication auth) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(uploadSessionService.start(auth.getName(), fileName, contentType, size));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (IOException ex) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unable to start upload.");
+        }
+    }
+
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> uploadStatus(@PathVariable String uploadId, Authentication auth) {
+        try {
+            return ResponseEntity.ok(uploadSessionService.status(auth.getName(), uploadId));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+        }
+    }
+
+    @PutMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> uploadChunk(@PathVariable String uploadId,
+                                         @RequestParam long offset,
+                                         InputStream body,
+                                         Authentication auth) {
+        try {
+            return ResponseEntity.ok(uploadSessionService.append(auth.getName(), uploadId, offset, body));
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(uploadSessionService.status(auth.getName(), uploadId));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (IOException ex) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unable to store chunk.");
+        }
+    }
+
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<?> completeUpload(@PathVariable String uploadId, Authentication auth) {
+        try {
+            return ResponseEntity.ok(uploadSessionService.complete(auth.getName(), uploadId));
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+        } catch (IOException ex) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unable to complete upload.");
+        }
+    }
+
     @GetMapping("/applications")
     public String applications(Authentication auth, Model model) {
         model.addAttribute("requests", portalService.getCustomerApplications(auth.getName()));
@@ -73,13 +132,10 @@ public class CustomerController {
     }
 
     @GetMapping("/application/{id}/issued-document/download")
-    public ResponseEntity<?> download(@PathVariable Long id, Authentication auth) {
+    public ResponseEntity<?> download(@PathVariable Long id, NativeWebRequest request, Authentication auth) {
         try {
-            PortalService.DocumentFile file = portalService.getIssuedDocumentFile(id, auth.getName(), false);
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.fileName() + "\"")
-                    .contentType(MediaType.parseMediaType(file.contentType()))
-                    .body(file.bytes());
+            PortalService.DocumentFile file = portalService.getIssuedDocumentForCustomer(id, auth.getName());
+            return DocumentResponses.attachment(request, file, portalService::openContent);
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
         } catch (IOException ex) {
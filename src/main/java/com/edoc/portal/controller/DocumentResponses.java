@@ -0,0 +1,72 @@
+package com.edoc.portal.controller;
+
+import com.edoc.portal.service.PortalService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+// Returning the Resource with 200 lets Spring MVC answer Range requests with 206 partial content itself.
+// The storage key is the content digest, so it doubles as a strong ETag; URLs carrying ?v=<digest> can
+// never change content and are cached as immutable, everything else revalidates.
+final class DocumentResponses {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private DocumentResponses() {
+    }
+
+    interface ContentOpener {
+        Resource open(PortalService.DocumentFile file) throws IOException;
+    }
+
+    // null means a 304 has already been written.
+    static ResponseEntity<Resource> attachment(NativeWebRequest request, PortalService.DocumentFile file, ContentOpener opener)
+            throws IOException {
+        return build(request, file, opener, ContentDisposition.attachment());
+    }
+
+    static ResponseEntity<Resource> inline(NativeWebRequest request, PortalService.DocumentFile file, ContentOpener opener)
+            throws IOException {
+        return build(request, file, opener, ContentDisposition.inline());
+    }
+
+    private static ResponseEntity<Resource> build(NativeWebRequest request,
+                                                  PortalService.DocumentFile file,
+                                                  ContentOpener opener,
+                                                  ContentDisposition.Builder disposition) throws IOException {
+        if (file.storageKey() == null || file.storageKey().isBlank()) {
+            throw new IllegalArgumentException("Document content not available.");
+        }
+        String etag = "\"" + file.storageKey() + "\"";
+        long lastModified = file.lastModified() == null
+                ? -1
+                : file.lastModified().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        CacheControl cacheControl = file.storageKey().equals(request.getParameter("v")) ? IMMUTABLE : REVALIDATE;
+        if (request.checkNotModified(etag, lastModified)) {
+            HttpServletResponse response = request.getNativeResponse(HttpServletResponse.class);
+            if (response != null) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+            }
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        disposition.filename(file.fileName()).build().toString())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(MediaType.parseMediaType(file.contentType()))
+                .body(opener.open(file));
+    }
+}
@@ -0,0 +1,46 @@
+package com.edoc.portal.dto;
+
+import com.edoc.portal.enums.ApplicationStatus;
+
+import java.time.LocalDateTime;
+
+// Everything the CSC application detail page renders, assembled inside a read-only transaction.
+public record ApplicationDetailView(Long id,
+                                    String applicantName,
+                                    String applicantMobile,
+                                    String serviceType,
+                                    String description,
+                                    String status,
+                                    LocalDateTime appliedDate,
+                                    String message,
+                                    boolean issuedDocumentAvailable,
+                                    CustomerSummary customer) {
+
+    // Flat form used by the JPQL constructor expression.
+    public ApplicationDetailView(Long id,
+                                 String applicantName,
+                                 String applicantMobile,
+                                 String serviceType,
+                                 String description,
+                                 String status,
+                                 LocalDateTime appliedDate,
+                                 String message,
+                                 boolean issuedDocumentAvailable,
+                                 Long customerId,
+                                 String customerName,
+                                 String customerEmail,
+                                 String customerMobile,
+                                 String customerStatus) {
+        this(id, applicantName, applicantMobile, serviceType, description, status, appliedDate, message,
+                issuedDocumentAvailable,
+                new CustomerSummary(customerId, customerName, customerEmail, customerMobile, customerStatus));
+    }
+
+    public boolean isSuccessLikeStatus() {
+        return ApplicationStatus.isSuccessLike(status);
+    }
+
+    public boolean isIssuedDownloadAllowed() {
+        return isSuccessLikeStatus() && issuedDocumentAvailable;
+    }
+}
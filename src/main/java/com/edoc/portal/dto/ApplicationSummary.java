@@ -0,0 +1,26 @@
+package com.edoc.portal.dto;
+
+import com.edoc.portal.enums.ApplicationStatus;
+
+import java.time.LocalDateTime;
+
+// Read-only row for application tables; filled by JPQL constructor expressions, never a managed entity.
+public record ApplicationSummary(Long id,
+                                 String applicantName,
+                                 String applicantMobile,
+                                 String serviceType,
+                                 String status,
+                                 LocalDateTime appliedDate,
+                                 String message,
+                                 String customerName,
+                                 boolean issuedAvailable,
+                                 long version) {
+
+    public boolean isSuccessLikeStatus() {
+        return ApplicationStatus.isSuccessLike(status);
+    }
+
+    public boolean isIssuedDownloadAllowed() {
+        return isSuccessLikeStatus() && issuedAvailable;
+    }
+}
@@ -0,0 +1,16 @@
+package com.edoc.portal.dto;
+
+import com.edoc.portal.enums.CustomerAction;
+
+import java.util.List;
+
+// Per-id outcome of a bulk customer action: changed, already in the target status, or not one of the CSC's customers.
+public record BulkCustomerResult(CustomerAction action,
+                                 List<Long> updated,
+                                 List<Long> unchanged,
+                                 List<Long> notFound) {
+
+    public int requested() {
+        return updated.size() + unchanged.size() + notFound.size();
+    }
+}
@@ -0,0 +1,17 @@
+package com.edoc.portal.dto;
+
+import java.util.List;
+
+// Per-id outcome of a bulk status change. Stale ids were changed by someone else after the list was loaded;
+// not-allowed ids are in a status that needs the single-application form (issued or rejected).
+public record BulkStatusResult(String status,
+                               List<Long> updated,
+                               List<Long> unchanged,
+                               List<Long> stale,
+                               List<Long> notAllowed,
+                               List<Long> notFound) {
+
+    public int requested() {
+        return updated.size() + unchanged.size() + stale.size() + notAllowed.size() + notFound.size();
+    }
+}
@@ -0,0 +1,11 @@
+package com.edoc.portal.dto;
+
+public record CscUserSummary(Long id,
+                             String cscPortalName,
+                             String ownerName,
+                             String cscId,
+                             String mobileNumber,
+                             String cscCenterAddress,
+                             String email,
+                             String status) {
+}
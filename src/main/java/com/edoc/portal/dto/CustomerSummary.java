@@ -0,0 +1,4 @@
+package com.edoc.portal.dto;
+
+public record CustomerSummary(Long id, String fullName, String email, String mobile, String status) {
+}
@@ -0,0 +1,13 @@
+package com.edoc.portal.dto;
+
+import java.time.LocalDateTime;
+
+public record DocumentMetadata(Long id,
+                               Integer sortOrder,
+                               String documentType,
+                               String fileName,
+                               String contentType,
+                               Long fileSize,
+                               String digest,
+                               LocalDateTime uploadedAt) {
+}
@@ -0,0 +1,14 @@
+package com.edoc.portal.dto;
+
+import java.time.LocalDateTime;
+
+public record IssuedDocumentExportRow(Long applicationId,
+                                      Long issuedDocumentId,
+                                      String applicantName,
+                                      String serviceType,
+                                      String fileName,
+                                      String contentType,
+                                      String storageKey,
+                                      Long fileSize,
+                                      LocalDateTime issuedAt) {
+}
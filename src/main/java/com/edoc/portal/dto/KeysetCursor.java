@@ -0,0 +1,28 @@
+package com.edoc.portal.dto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+// Position after the last row of a page ordered by (appliedDate desc, id desc).
+public record KeysetCursor(LocalDateTime appliedDate, Long id) {
+
+    public String encode() {
+        return appliedDate + "_" + id;
+    }
+
+    public static KeysetCursor parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        int separator = value.lastIndexOf('_');
+        if (separator <= 0 || separator == value.length() - 1) {
+            return null;
+        }
+        try {
+            return new KeysetCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException ex) {
+            return null;
+        }
+    }
+}
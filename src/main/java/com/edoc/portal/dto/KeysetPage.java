@@ -0,0 +1,10 @@
+package com.edoc.portal.dto;
+
+import java.util.List;
+
+public record KeysetPage<T>(List<T> items, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
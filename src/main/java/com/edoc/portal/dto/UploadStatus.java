@@ -0,0 +1,9 @@
+package com.edoc.portal.dto;
+
+public record UploadStatus(String id,
+                           String fileName,
+                           long size,
+                           long offset,
+                           boolean complete,
+                           long chunkSize) {
+}
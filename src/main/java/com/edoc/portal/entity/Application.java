@@ -1,5 +1,6 @@
 package com.edoc.portal.entity;
 
+import com.edoc.portal.enums.ApplicationStatus;
 import jakarta.persistence.Column;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.FetchType;
@@ -7,28 +8,39 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.OneToOne;
 import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Locale;
 
 @Entity
-@Table(name = "applications")
+@Table(name = "applications",
+        indexes = @Index(name = "idx_applications_customer_status_date", columnList = "customer_id, status, applied_date"))
 public class Application {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled ids from id_generators (see IdGeneratorAlignment) instead of IDENTITY, so inserts can be JDBC-batched.
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "applications_id")
+    @TableGenerator(name = "applications_id", table = "id_generators",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "applications", allocationSize = 50)
     private Long id;
 
+    // Bumped by every save and by the bulk status update, which only applies to the version the operator saw.
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     private String applicantName;
     private String applicantMobile;
     private String serviceType;
@@ -44,18 +56,15 @@ public class Application {
 
     private String issuedDocumentPath;
 
-    private String issuedDocumentName;
-
-    private String issuedDocumentContentType;
-
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] issuedDocumentData;
+    // Issued PDF metadata lives in its own table; list queries only see the foreign key.
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "issued_document_id")
+    private IssuedDocument issuedDocument;
 
     @Column(columnDefinition = "TEXT")
     private String message;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
     private User customer;
 
@@ -73,6 +82,10 @@ public class Application {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public String getApplicantName() {
         return applicantName;
     }
@@ -137,28 +150,12 @@ public class Application {
         this.message = message;
     }
 
-    public String getIssuedDocumentName() {
-        return issuedDocumentName;
-    }
-
-    public void setIssuedDocumentName(String issuedDocumentName) {
-        this.issuedDocumentName = issuedDocumentName;
-    }
-
-    public String getIssuedDocumentContentType() {
-        return issuedDocumentContentType;
-    }
-
-    public void setIssuedDocumentContentType(String issuedDocumentContentType) {
-        this.issuedDocumentContentType = issuedDocumentContentType;
-    }
-
-    public byte[] getIssuedDocumentData() {
-        return issuedDocumentData;
+    public IssuedDocument getIssuedDocument() {
+        return issuedDocument;
     }
 
-    public void setIssuedDocumentData(byte[] issuedDocumentData) {
-        this.issuedDocumentData = issuedDocumentData;
+    public void setIssuedDocument(IssuedDocument issuedDocument) {
+        this.issuedDocument = issuedDocument;
     }
 
     public User getCustomer() {
@@ -190,17 +187,13 @@ public class Application {
 
     @Transient
     public boolean isIssuedDocumentAvailable() {
-        return (issuedDocumentData != null && issuedDocumentData.length > 0)
+        return issuedDocument != null
                 || (issuedDocumentPath != null && !issuedDocumentPath.isBlank());
     }
 
     @Transient
     public boolean isSuccessLikeStatus() {
-        if (status == null) {
-            return false;
-        }
-        String normalized = status.trim().toUpperCase(Locale.ROOT);
-        return "SUCCESS".equals(normalized) || "APPROVED".equals(normalized) || "ISSUED".equals(normalized);
+        return ApplicationStatus.isSuccessLike(status);
     }
 
     @Transient
@@ -260,59 +253,4 @@ public class Application {
     public String getRejectionReason() {
         return message;
     }
-
-    @Transient
-    public List<UploadedDocumentInfo> getUploadedDocuments() {
-        List<UploadedDocumentInfo> docs = new ArrayList<>();
-        List<ApplicationDocument> dbDocs = getUploadedDocumentEntities();
-        if (!dbDocs.isEmpty()) {
-            long baseId = (id == null ? 0L : id) * 1000L;
-            for (int i = 0; i < dbDocs.size(); i++) {
-                ApplicationDocument dbDoc = dbDocs.get(i);
-                String docType = dbDoc.getDocumentType() == null || dbDoc.getDocumentType().isBlank()
-                        ? "Document"
-                        : dbDoc.getDocumentType();
-                String fileName = dbDoc.getFileName() == null || dbDoc.getFileName().isBlank()
-                        ? "document"
-                        : dbDoc.getFileName();
-                docs.add(new UploadedDocumentInfo(baseId + i + 1, docType, fileName, null));
-            }
-            return docs;
-        }
-
-        if (documentPath == null || documentPath.isBlank()) {
-            return docs;
-        }
-
-        List<String> items;
-        if (documentPath.contains("||")) {
-            items = Arrays.stream(documentPath.split("\\|\\|")).toList();
-        } else if (documentPath.contains(",")) {
-            items = Arrays.stream(documentPath.split(",")).toList();
-        } else {
-            items = List.of(documentPath);
-        }
-
-        int index = 0;
-        for (String item : items) {
-            if (item == null || item.isBlank()) {
-                continue;
-            }
-            String[] parts = item.split("::", 2);
-            String docType = parts.length == 2 ? parts[0] : "Document";
-            String filePath = parts.length == 2 ? parts[1] : parts[0];
-            String fileName = filePath;
-            int idx = Math.max(filePath.lastIndexOf('/'), filePath.lastIndexOf('\\'));
-            if (idx >= 0 && idx < filePath.length() - 1) {
-                fileName = filePath.substring(idx + 1);
-            }
-            long baseId = (id == null ? 0L : id) * 1000L;
-            docs.add(new UploadedDocumentInfo(baseId + index + 1, docType, fileName, filePath));
-            index++;
-        }
-        return docs;
-    }
-
-    public record UploadedDocumentInfo(Long id, String documentType, String fileName, String filePath) {
-    }
 }
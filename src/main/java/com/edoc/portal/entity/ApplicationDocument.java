@@ -1,22 +1,33 @@
 package com.edoc.portal.entity;
 
+import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "application_documents")
+@Table(name = "application_documents",
+        indexes = @Index(name = "idx_application_documents_application", columnList = "application_id, sort_order"))
 public class ApplicationDocument {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "application_documents_id")
+    @TableGenerator(name = "application_documents_id", table = "id_generators",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "application_documents", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -35,9 +46,22 @@ public class ApplicationDocument {
     @Column(length = 150)
     private String contentType;
 
-    @Lob
-    @Column(columnDefinition = "LONGBLOB", nullable = false)
-    private byte[] data;
+    @Column(length = 64)
+    private String storageKey;
+
+    private Long fileSize;
+
+    private LocalDateTime uploadedAt;
+
+    // Set when normalization replaced the content and the upload as received was kept.
+    @Column(length = 64)
+    private String originalStorageKey;
+
+    // Set once normalization has looked at the document, whether or not it replaced the content.
+    private LocalDateTime normalizedAt;
+
+    @OneToMany(mappedBy = "document", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<DocumentRendition> renditions = new ArrayList<>();
 
     public Long getId() {
         return id;
@@ -87,11 +111,47 @@ public class ApplicationDocument {
         this.contentType = contentType;
     }
 
-    public byte[] getData() {
-        return data;
+    public String getStorageKey() {
+        return storageKey;
+    }
+
+    public void setStorageKey(String storageKey) {
+        this.storageKey = storageKey;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public LocalDateTime getUploadedAt() {
+        return uploadedAt;
+    }
+
+    public void setUploadedAt(LocalDateTime uploadedAt) {
+        this.uploadedAt = uploadedAt;
+    }
+
+    public String getOriginalStorageKey() {
+        return originalStorageKey;
+    }
+
+    public void setOriginalStorageKey(String originalStorageKey) {
+        this.originalStorageKey = originalStorageKey;
+    }
+
+    public LocalDateTime getNormalizedAt() {
+        return normalizedAt;
+    }
+
+    public void setNormalizedAt(LocalDateTime normalizedAt) {
+        this.normalizedAt = normalizedAt;
     }
 
-    public void setData(byte[] data) {
-        this.data = data;
+    public List<DocumentRendition> getRenditions() {
+        return renditions;
     }
 }
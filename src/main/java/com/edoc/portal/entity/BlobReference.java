@@ -0,0 +1,57 @@
+package com.edoc.portal.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+// One row per distinct blob in the store; refCount counts document rows pointing at it.
+@Entity
+@Table(name = "stored_blobs")
+public class BlobReference {
+
+    @Id
+    @Column(length = 64)
+    private String storageKey;
+
+    private Long fileSize;
+
+    @Column(nullable = false)
+    private int refCount;
+
+    private LocalDateTime createdAt;
+
+    public String getStorageKey() {
+        return storageKey;
+    }
+
+    public void setStorageKey(String storageKey) {
+        this.storageKey = storageKey;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(int refCount) {
+        this.refCount = refCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
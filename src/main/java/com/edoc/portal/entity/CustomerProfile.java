@@ -2,15 +2,18 @@ package com.edoc.portal.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "customer_profiles")
+@Table(name = "customer_profiles",
+        indexes = @Index(name = "idx_customer_profiles_assigned_csc", columnList = "assigned_csc_email, user_id"))
 public class CustomerProfile {
 
     @Id
@@ -26,7 +29,7 @@ public class CustomerProfile {
     @Column(nullable = false)
     private String assignedCscEmail;
 
-    @OneToOne(optional = false)
+    @OneToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false, unique = true)
     private User user;
 
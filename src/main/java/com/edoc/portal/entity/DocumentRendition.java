@@ -0,0 +1,139 @@
+package com.edoc.portal.entity;
+
+import com.edoc.portal.enums.RenditionKind;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.UniqueConstraint;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "document_renditions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_document_renditions_document_kind", columnNames = {"document_id", "kind"}),
+        indexes = @Index(name = "idx_document_renditions_source", columnList = "source_key, kind"))
+public class DocumentRendition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "document_renditions_id")
+    @TableGenerator(name = "document_renditions_id", table = "id_generators",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "document_renditions", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "document_id", nullable = false)
+    private ApplicationDocument document;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private RenditionKind kind;
+
+    // Storage key of the original it was rendered from; identical originals share renditions.
+    @Column(length = 64, nullable = false)
+    private String sourceKey;
+
+    @Column(length = 64, nullable = false)
+    private String storageKey;
+
+    @Column(length = 150)
+    private String contentType;
+
+    private Integer width;
+
+    private Integer height;
+
+    private Long fileSize;
+
+    private LocalDateTime createdAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ApplicationDocument getDocument() {
+        return document;
+    }
+
+    public void setDocument(ApplicationDocument document) {
+        this.document = document;
+    }
+
+    public RenditionKind getKind() {
+        return kind;
+    }
+
+    public void setKind(RenditionKind kind) {
+        this.kind = kind;
+    }
+
+    public String getSourceKey() {
+        return sourceKey;
+    }
+
+    public void setSourceKey(String sourceKey) {
+        this.sourceKey = sourceKey;
+    }
+
+    public String getStorageKey() {
+        return storageKey;
+    }
+
+    public void setStorageKey(String storageKey) {
+        this.storageKey = storageKey;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
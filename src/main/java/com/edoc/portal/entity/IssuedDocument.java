@@ -0,0 +1,84 @@
+package com.edoc.portal.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "issued_documents")
+public class IssuedDocument {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "issued_documents_id")
+    @TableGenerator(name = "issued_documents_id", table = "id_generators",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "issued_documents", allocationSize = 50)
+    private Long id;
+
+    @Column(length = 255, nullable = false)
+    private String fileName;
+
+    @Column(length = 150)
+    private String contentType;
+
+    @Column(length = 64, nullable = false)
+    private String storageKey;
+
+    private Long fileSize;
+
+    private LocalDateTime uploadedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getStorageKey() {
+        return storageKey;
+    }
+
+    public void setStorageKey(String storageKey) {
+        this.storageKey = storageKey;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public LocalDateTime getUploadedAt() {
+        return uploadedAt;
+    }
+
+    public void setUploadedAt(LocalDateTime uploadedAt) {
+        this.uploadedAt = uploadedAt;
+    }
+}
@@ -0,0 +1,93 @@
+package com.edoc.portal.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+// Where a cold blob lives inside the append-only pack files. rehydratedAt is set while a hot copy exists
+// again because somebody read it; the tiering job drops that copy once it has been idle long enough.
+@Entity
+@Table(name = "packed_blobs",
+        indexes = @Index(name = "idx_packed_blobs_rehydrated_at", columnList = "rehydrated_at"))
+public class PackedBlob {
+
+    @Id
+    @Column(length = 64)
+    private String storageKey;
+
+    @Column(length = 64, nullable = false)
+    private String packFile;
+
+    @Column(nullable = false)
+    private long packOffset;
+
+    @Column(nullable = false)
+    private long packedLength;
+
+    @Column(nullable = false)
+    private long fileSize;
+
+    private LocalDateTime packedAt;
+
+    private LocalDateTime rehydratedAt;
+
+    public String getStorageKey() {
+        return storageKey;
+    }
+
+    public void setStorageKey(String storageKey) {
+        this.storageKey = storageKey;
+    }
+
+    public String getPackFile() {
+        return packFile;
+    }
+
+    public void setPackFile(String packFile) {
+        this.packFile = packFile;
+    }
+
+    public long getPackOffset() {
+        return packOffset;
+    }
+
+    public void setPackOffset(long packOffset) {
+        this.packOffset = packOffset;
+    }
+
+    public long getPackedLength() {
+        return packedLength;
+    }
+
+    public void setPackedLength(long packedLength) {
+        this.packedLength = packedLength;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public LocalDateTime getPackedAt() {
+        return packedAt;
+    }
+
+    public void setPackedAt(LocalDateTime packedAt) {
+        this.packedAt = packedAt;
+    }
+
+    public LocalDateTime getRehydratedAt() {
+        return rehydratedAt;
+    }
+
+    public void setRehydratedAt(LocalDateTime rehydratedAt) {
+        this.rehydratedAt = rehydratedAt;
+    }
+}
@@ -0,0 +1,106 @@
+package com.edoc.portal.entity;
+
+import com.edoc.portal.enums.PurgeTarget;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.UniqueConstraint;
+
+import java.time.LocalDateTime;
+
+// Content still to be removed for a rejected application or a deleted customer. Written in the same transaction
+// that flips the status, so the work survives a restart; the purge worker deletes the row once it is done.
+@Entity
+@Table(name = "purge_tasks",
+        uniqueConstraints = @UniqueConstraint(name = "uk_purge_tasks_target", columnNames = {"target", "target_id"}),
+        indexes = @Index(name = "idx_purge_tasks_next_attempt", columnList = "next_attempt_at, id"))
+public class PurgeTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "purge_tasks_id")
+    @TableGenerator(name = "purge_tasks_id", table = "id_generators",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "purge_tasks", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private PurgeTarget target;
+
+    @Column(nullable = false)
+    private Long targetId;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public PurgeTarget getTarget() {
+        return target;
+    }
+
+    public void setTarget(PurgeTarget target) {
+        this.target = target;
+    }
+
+    public Long getTargetId() {
+        return targetId;
+    }
+
+    public void setTargetId(Long targetId) {
+        this.targetId = targetId;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+}
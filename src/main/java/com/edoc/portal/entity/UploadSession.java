@@ -0,0 +1,126 @@
+package com.edoc.portal.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+// A document being uploaded in chunks. Bytes collect in a part file until the session is completed; from then
+// on storageKey points at the blob, which the session holds one ledger reference to until an application claims it.
+@Entity
+@Table(name = "upload_sessions",
+        indexes = @Index(name = "idx_upload_sessions_updated_at", columnList = "updated_at"))
+public class UploadSession {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private String ownerEmail;
+
+    @Column(length = 255, nullable = false)
+    private String fileName;
+
+    @Column(length = 150)
+    private String contentType;
+
+    @Column(nullable = false)
+    private long totalSize;
+
+    @Column(nullable = false)
+    private long receivedBytes;
+
+    @Column(length = 64)
+    private String storageKey;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOwnerEmail() {
+        return ownerEmail;
+    }
+
+    public void setOwnerEmail(String ownerEmail) {
+        this.ownerEmail = ownerEmail;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public void setTotalSize(long totalSize) {
+        this.totalSize = totalSize;
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes;
+    }
+
+    public void setReceivedBytes(long receivedBytes) {
+        this.receivedBytes = receivedBytes;
+    }
+
+    public String getStorageKey() {
+        return storageKey;
+    }
+
+    public void setStorageKey(String storageKey) {
+        this.storageKey = storageKey;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -6,17 +6,29 @@ import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
 
 @Entity
-@Table(name = "users")
+@NamedEntityGraph(name = User.PROFILES_GRAPH, attributeNodes = {
+        @NamedAttributeNode("adminProfile"),
+        @NamedAttributeNode("cscProfile"),
+        @NamedAttributeNode("customerProfile")
+})
+@Table(name = "users",
+        indexes = @Index(name = "idx_users_role_status", columnList = "role, status"))
 public class User {
 
+    public static final String PROFILES_GRAPH = "User.profiles";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -37,13 +49,14 @@ public class User {
     @Column(nullable = false)
     private String status;
 
-    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+    // Lazy on the inverse side relies on bytecode enhancement (see pom.xml); load them via PROFILES_GRAPH when needed.
+    @OneToOne(mappedBy = "user", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private AdminProfile adminProfile;
 
-    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToOne(mappedBy = "user", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private CscUserProfile cscProfile;
 
-    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToOne(mappedBy = "user", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private CustomerProfile customerProfile;
 
     public Long getId() {
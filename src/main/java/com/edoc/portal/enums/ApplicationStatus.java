@@ -1,9 +1,19 @@
 package com.edoc.portal.enums;
 
+import java.util.Locale;
+
 public enum ApplicationStatus {
     PENDING,
     APPLIED,
     SUCCESS,
     REJECTED,
-    
+    ;
+
+    public static boolean isSuccessLike(String status) {
+        if (status == null) {
+            return false;
+        }
+        String normalized = status.trim().toUpperCase(Locale.ROOT);
+        return "SUCCESS".equals(normalized) || "APPROVED".equals(normalized) || "ISSUED".equals(normalized);
+    }
 }
@@ -0,0 +1,28 @@
+package com.edoc.portal.enums;
+
+import java.util.Locale;
+
+// What a CSC can do to its customers, and the user status each action leaves behind.
+public enum CustomerAction {
+    APPROVE("ACTIVE"),
+    DEACTIVATE("PENDING"),
+    REMOVE("DELETED");
+
+    private final String targetStatus;
+
+    CustomerAction(String targetStatus) {
+        this.targetStatus = targetStatus;
+    }
+
+    public String targetStatus() {
+        return targetStatus;
+    }
+
+    public static CustomerAction parse(String value) {
+        try {
+            return valueOf(value == null ? "" : value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown customer action.");
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.edoc.portal.enums;
+
+public enum RenditionKind {
+    THUMBNAIL,
+    PREVIEW
+}
@@ -0,0 +1,275 @@
+package com.edoc.portal.imaging;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+
+// Decode / downscale / encode helpers shared by renditions and upload normalization.
+public final class ImageProcessing {
+
+    // Never rasterize a PDF page finer than this, whatever the target size.
+    private static final float MAX_PDF_DPI = 150f;
+
+    private ImageProcessing() {
+    }
+
+    public static List<String> decodableContentTypes() {
+        return List.of(ImageIO.getReaderMIMETypes());
+    }
+
+    public static boolean canDecode(String contentType) {
+        return contentType != null && ImageIO.getImageReadersByMIMEType(contentType).hasNext();
+    }
+
+    // Decodes with source subsampling so a 12 MP photo never materializes at full size when only a small image is needed.
+    // The EXIF orientation is applied to the pixels, since every encoder here writes without metadata.
+    public static BufferedImage readScaled(InputStream content, int maxDimension) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Unsupported image format.");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                // Keep at least twice the target so the final resample has something to work with.
+                int subsampling = Math.max(1, longest / Math.max(1, maxDimension * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                int orientation = exifOrientation(reader);
+                return fit(orient(reader.read(0, param), orientation), maxDimension);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // True for a JPEG that is no larger than maxDimension and carries no APP1-APP15 or comment segments, i.e. one that
+    // re-encoding would only degrade. Reads the headers only; the pixels are never decoded.
+    public static boolean isCleanJpegWithin(InputStream content, int maxDimension) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return false;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, false);
+                if (Math.max(reader.getWidth(0), reader.getHeight(0)) > maxDimension) {
+                    return false;
+                }
+                IIOMetadata metadata = reader.getImageMetadata(0);
+                if (metadata == null || !"javax_imageio_jpeg_image_1.0".equals(metadata.getNativeMetadataFormatName())) {
+                    return false;
+                }
+                Node markers = find(metadata.getAsTree("javax_imageio_jpeg_image_1.0"), "markerSequence");
+                for (Node marker = markers == null ? null : markers.getFirstChild(); marker != null; marker = marker.getNextSibling()) {
+                    if ("com".equals(marker.getNodeName())) {
+                        return false;
+                    }
+                    Node tag = marker.getAttributes() == null ? null : marker.getAttributes().getNamedItem("MarkerTag");
+                    int code = tag == null ? 0 : Integer.parseInt(tag.getNodeValue());
+                    if ("unknown".equals(marker.getNodeName()) && code >= 0xE1 && code <= 0xEF) {
+                        return false;
+                    }
+                }
+                return true;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    public static BufferedImage renderPdfFirstPage(InputStream content, int maxDimension) throws IOException {
+        try (PDDocument document = Loader.loadPDF(new RandomAccessReadBuffer(content))) {
+            if (document.getNumberOfPages() == 0) {
+                throw new IOException("PDF has no pages.");
+            }
+            PDRectangle box = document.getPage(0).getCropBox();
+            float longestPoints = Math.max(box.getWidth(), box.getHeight());
+            float dpi = Math.min(MAX_PDF_DPI, 72f * maxDimension / Math.max(1f, longestPoints));
+            return fit(new PDFRenderer(document).renderImageWithDPI(0, dpi, ImageType.RGB), maxDimension);
+        }
+    }
+
+    // Opaque RGB copy no larger than maxDimension on its longest side; halves repeatedly before the last step.
+    public static BufferedImage fit(BufferedImage source, int maxDimension) {
+        BufferedImage current = flatten(source);
+        int width = current.getWidth();
+        int height = current.getHeight();
+        double scale = Math.min(1d, (double) maxDimension / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        while (width != targetWidth || height != targetHeight) {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = resize(current, width, height);
+        }
+        return current;
+    }
+
+    // Baseline JPEG without any metadata (no EXIF, no GPS, no thumbnails).
+    public static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(flatten(image), null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    // EXIF orientation tag (1-8) from a JPEG APP1 segment; 1 when absent or unreadable.
+    private static int exifOrientation(ImageReader reader) {
+        try {
+            IIOMetadata metadata = reader.getImageMetadata(0);
+            if (metadata == null || !"javax_imageio_jpeg_image_1.0".equals(metadata.getNativeMetadataFormatName())) {
+                return 1;
+            }
+            Node markers = find(metadata.getAsTree("javax_imageio_jpeg_image_1.0"), "markerSequence");
+            for (Node marker = markers == null ? null : markers.getFirstChild(); marker != null; marker = marker.getNextSibling()) {
+                Node tag = marker.getAttributes() == null ? null : marker.getAttributes().getNamedItem("MarkerTag");
+                if ("unknown".equals(marker.getNodeName()) && tag != null && "225".equals(tag.getNodeValue())
+                        && marker instanceof IIOMetadataNode node
+                        && node.getUserObject() instanceof byte[] app1) {
+                    return orientationFromExif(app1);
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            return 1;
+        }
+        return 1;
+    }
+
+    private static Node find(Node node, String name) {
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (name.equals(child.getNodeName())) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    // Walks IFD0 of the TIFF structure behind the "Exif\0\0" header looking for tag 0x0112.
+    private static int orientationFromExif(byte[] app1) {
+        int base = 6;
+        if (app1.length < base + 8 || app1[0] != 'E' || app1[1] != 'x' || app1[2] != 'i' || app1[3] != 'f') {
+            return 1;
+        }
+        boolean little = app1[base] == 'I';
+        int ifd = base + readInt(app1, base + 4, little);
+        if (ifd + 2 > app1.length) {
+            return 1;
+        }
+        int entries = readShort(app1, ifd, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > app1.length) {
+                break;
+            }
+            if (readShort(app1, entry, little) == 0x0112) {
+                int value = readShort(app1, entry + 8, little);
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] data, int offset, boolean little) {
+        int a = data[offset] & 0xFF;
+        int b = data[offset + 1] & 0xFF;
+        return little ? (b << 8) | a : (a << 8) | b;
+    }
+
+    private static int readInt(byte[] data, int offset, boolean little) {
+        return little
+                ? (readShort(data, offset + 2, true) << 16) | readShort(data, offset, true)
+                : (readShort(data, offset, false) << 16) | readShort(data, offset + 2, false);
+    }
+
+    private static BufferedImage orient(BufferedImage source, int orientation) {
+        if (orientation <= 1) {
+            return source;
+        }
+        int w = source.getWidth();
+        int h = source.getHeight();
+        boolean swap = orientation >= 5;
+        AffineTransform transform = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { transform.translate(w, 0); transform.scale(-1, 1); }
+            case 3 -> { transform.translate(w, h); transform.rotate(Math.PI); }
+            case 4 -> { transform.translate(0, h); transform.scale(1, -1); }
+            case 5 -> { transform.rotate(Math.PI / 2); transform.scale(1, -1); }
+            case 6 -> { transform.translate(h, 0); transform.rotate(Math.PI / 2); }
+            case 7 -> { transform.scale(-1, 1); transform.translate(-h, 0); transform.translate(0, w); transform.rotate(3 * Math.PI / 2); }
+            case 8 -> { transform.translate(0, w); transform.rotate(3 * Math.PI / 2); }
+            default -> { return source; }
+        }
+        BufferedImage target = new BufferedImage(swap ? h : w, swap ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.drawImage(source, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static BufferedImage flatten(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.drawImage(source, 0, 0, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,60 @@
+package com.edoc.portal.repository;
+
+import com.edoc.portal.dto.DocumentMetadata;
+import com.edoc.portal.entity.ApplicationDocument;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ApplicationDocumentRepository extends JpaRepository<ApplicationDocument, Long> {
+
+    // Content of a rejected application stays until the purge worker gets to it; these queries hide it meanwhile.
+
+    @Query("select new com.edoc.portal.dto.DocumentMetadata(d.id, d.sortOrder, d.documentType, d.fileName, "
+            + "d.contentType, d.fileSize, d.storageKey, d.uploadedAt) "
+            + "from ApplicationDocument d where d.application.id = :applicationId "
+            + "and d.application.status <> 'REJECTED' "
+            + "order by d.sortOrder asc, d.id asc")
+    List<DocumentMetadata> findMetadataByApplicationId(@Param("applicationId") Long applicationId);
+
+    // One row, and only when the document's customer is assigned to the given CSC.
+    @Query("select new com.edoc.portal.dto.DocumentMetadata(d.id, d.sortOrder, d.documentType, d.fileName, "
+            + "d.contentType, d.fileSize, d.storageKey, d.uploadedAt) "
+            + "from ApplicationDocument d join d.application a join a.customer c join c.customerProfile p "
+            + "where d.id = :documentId and p.assignedCscEmail = :cscEmail and a.status <> 'REJECTED'")
+    Optional<DocumentMetadata> findMetadataForCsc(@Param("documentId") Long documentId,
+                                                  @Param("cscEmail") String cscEmail);
+
+    // Empty both when the application has no documents and when it is not assigned to the given CSC.
+    @Query("select new com.edoc.portal.dto.DocumentMetadata(d.id, d.sortOrder, d.documentType, d.fileName, "
+            + "d.contentType, d.fileSize, d.storageKey, d.uploadedAt) "
+            + "from ApplicationDocument d join d.application a join a.customer c join c.customerProfile p "
+            + "where a.id = :applicationId and p.assignedCscEmail = :cscEmail and a.status <> 'REJECTED' "
+            + "order by d.sortOrder asc, d.id asc")
+    List<DocumentMetadata> findMetadataForCscApplication(@Param("applicationId") Long applicationId,
+                                                         @Param("cscEmail") String cscEmail);
+
+    // Renderable uploads from the given window that still have no preview, in id order after a cursor.
+    @Query("select d.id from ApplicationDocument d join d.application a "
+            + "where d.id > :afterId and d.uploadedAt between :from and :to and d.contentType in :contentTypes "
+            + "and a.status <> 'REJECTED' and not exists (select r.id from DocumentRendition r "
+            + "where r.document = d and r.kind = com.edoc.portal.enums.RenditionKind.PREVIEW) "
+            + "order by d.id asc")
+    List<Long> findIdsWithoutPreview(@Param("afterId") Long afterId,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     @Param("contentTypes") Collection<String> contentTypes,
+                                     Limit limit);
+
+    @Query("select d.id from ApplicationDocument d where d.application.id = :applicationId order by d.id asc")
+    List<Long> findIdsByApplicationId(@Param("applicationId") Long applicationId, Limit limit);
+
+    @Query("select distinct d from ApplicationDocument d left join fetch d.renditions where d.id in :ids")
+    List<ApplicationDocument> findWithRenditions(@Param("ids") Collection<Long> ids);
+}
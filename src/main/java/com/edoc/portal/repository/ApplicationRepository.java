@@ -1,14 +1,87 @@
 package com.edoc.portal.repository;
 
+import com.edoc.portal.dto.ApplicationDetailView;
+import com.edoc.portal.dto.ApplicationSummary;
 import com.edoc.portal.entity.Application;
-import com.edoc.portal.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ApplicationRepository extends JpaRepository<Application, Long> {
 
-    List<Application> findByCustomerOrderByAppliedDateDesc(User customer);
+    String SUMMARY_SELECT = "select new com.edoc.portal.dto.ApplicationSummary(a.id, a.applicantName, a.applicantMobile, "
+            + "a.serviceType, a.status, a.appliedDate, a.message, coalesce(nullif(c.name, ''), a.applicantName), "
+            + "case when a.status <> 'REJECTED' and (a.issuedDocument is not null "
+            + "or (a.issuedDocumentPath is not null and a.issuedDocumentPath <> '')) "
+            + "then true else false end, a.version) ";
 
-    List<Application> findAllByOrderByAppliedDateDesc();
+    // The application only when its customer is assigned to the given CSC; empty covers both missing and foreign.
+    @Query("select new com.edoc.portal.dto.ApplicationDetailView(a.id, a.applicantName, a.applicantMobile, "
+            + "a.serviceType, a.description, a.status, a.appliedDate, a.message, "
+            + "case when a.status <> 'REJECTED' and (a.issuedDocument is not null "
+            + "or (a.issuedDocumentPath is not null and a.issuedDocumentPath <> '')) "
+            + "then true else false end, "
+            + "c.id, coalesce(nullif(p.fullName, ''), c.name), c.email, p.mobileNumber, c.status) "
+            + "from Application a join a.customer c join c.customerProfile p "
+            + "where a.id = :applicationId and p.assignedCscEmail = :cscEmail")
+    Optional<ApplicationDetailView> findDetailForCsc(@Param("applicationId") Long applicationId,
+                                                     @Param("cscEmail") String cscEmail);
+
+    @Query("select a from Application a join a.customer c join c.customerProfile p "
+            + "where a.id = :applicationId and p.assignedCscEmail = :cscEmail")
+    Optional<Application> findByIdForCsc(@Param("applicationId") Long applicationId,
+                                         @Param("cscEmail") String cscEmail);
+
+    @Query(SUMMARY_SELECT
+            + "from Application a join a.customer c "
+            + "where c.email = :customerEmail "
+            + "order by a.appliedDate desc, a.id desc")
+    List<ApplicationSummary> findSummariesForCustomer(@Param("customerEmail") String customerEmail);
+
+    @Query(SUMMARY_SELECT
+            + "from Application a join a.customer c join c.customerProfile p "
+            + "where p.assignedCscEmail = :cscEmail and a.status in :statuses "
+            + "order by a.appliedDate desc, a.id desc")
+    List<ApplicationSummary> findFirstPageForCsc(@Param("cscEmail") String cscEmail,
+                                                 @Param("statuses") Collection<String> statuses,
+                                                 Limit limit);
+
+    @Query(SUMMARY_SELECT
+            + "from Application a join a.customer c join c.customerProfile p "
+            + "where p.assignedCscEmail = :cscEmail and a.status in :statuses "
+            + "and (a.appliedDate < :afterDate or (a.appliedDate = :afterDate and a.id < :afterId)) "
+            + "order by a.appliedDate desc, a.id desc")
+    List<ApplicationSummary> findPageForCscAfter(@Param("cscEmail") String cscEmail,
+                                                 @Param("statuses") Collection<String> statuses,
+                                                 @Param("afterDate") LocalDateTime afterDate,
+                                                 @Param("afterId") Long afterId,
+                                                 Limit limit);
+
+    @Query(SUMMARY_SELECT
+            + "from Application a join a.customer c join c.customerProfile p "
+            + "where a.id in :ids and p.assignedCscEmail = :cscEmail")
+    List<ApplicationSummary> findSummariesForCscByIds(@Param("ids") Collection<Long> ids,
+                                                      @Param("cscEmail") String cscEmail);
+
+    // Touches only status and version; the version match makes it a no-op for rows changed since they were listed.
+    @Modifying
+    @Query("update Application a set a.status = :status, a.version = a.version + 1 "
+            + "where a.id in :ids and a.version = :version and a.status in :fromStatuses "
+            + "and exists (select p.id from CustomerProfile p "
+            + "where p.user = a.customer and p.assignedCscEmail = :cscEmail)")
+    int updateStatusesForCsc(@Param("ids") Collection<Long> ids,
+                             @Param("version") long version,
+                             @Param("fromStatuses") Collection<String> fromStatuses,
+                             @Param("status") String status,
+                             @Param("cscEmail") String cscEmail);
+
+    @Query("select a.id from Application a where a.customer.id = :customerId order by a.id asc")
+    List<Long> findIdsByCustomerId(@Param("customerId") Long customerId, Limit limit);
 }
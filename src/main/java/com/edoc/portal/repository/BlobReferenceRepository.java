@@ -0,0 +1,42 @@
+package com.edoc.portal.repository;
+
+import com.edoc.portal.entity.BlobReference;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface BlobReferenceRepository extends JpaRepository<BlobReference, String> {
+
+    // Creates the row on first sight and row-locks it either way; delta 0 only takes the lock.
+    @Modifying
+    @Query(value = "INSERT INTO stored_blobs (storage_key, file_size, ref_count, created_at) "
+            + "VALUES (:storageKey, :fileSize, :delta, CURRENT_TIMESTAMP) "
+            + "ON DUPLICATE KEY UPDATE ref_count = ref_count + :delta", nativeQuery = true)
+    int adjust(@Param("storageKey") String storageKey, @Param("fileSize") Long fileSize, @Param("delta") int delta);
+
+    @Modifying
+    @Query("update BlobReference b set b.refCount = b.refCount - 1 where b.storageKey = :storageKey and b.refCount > 0")
+    int decrement(@Param("storageKey") String storageKey);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from BlobReference b where b.storageKey = :storageKey")
+    Optional<BlobReference> findForUpdate(@Param("storageKey") String storageKey);
+
+    // Counts references for blobs written before the ledger existed; rows already in the ledger are left alone.
+    @Modifying
+    @Query(value = "INSERT INTO stored_blobs (storage_key, file_size, ref_count, created_at) "
+            + "SELECT r.storage_key, MAX(r.file_size), COUNT(*), CURRENT_TIMESTAMP FROM ("
+            + "SELECT storage_key, file_size FROM application_documents WHERE storage_key IS NOT NULL "
+            + "UNION ALL SELECT original_storage_key, NULL FROM application_documents WHERE original_storage_key IS NOT NULL "
+            + "UNION ALL SELECT storage_key, file_size FROM issued_documents WHERE storage_key IS NOT NULL "
+            + "UNION ALL SELECT storage_key, file_size FROM document_renditions WHERE storage_key IS NOT NULL "
+            + "UNION ALL SELECT storage_key, total_size FROM upload_sessions WHERE storage_key IS NOT NULL) r "
+            + "WHERE NOT EXISTS (SELECT 1 FROM stored_blobs b WHERE b.storage_key = r.storage_key) "
+            + "GROUP BY r.storage_key", nativeQuery = true)
+    int backfill();
+}
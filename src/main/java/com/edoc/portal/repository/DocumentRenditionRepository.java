@@ -0,0 +1,24 @@
+package com.edoc.portal.repository;
+
+import com.edoc.portal.entity.DocumentRendition;
+import com.edoc.portal.enums.RenditionKind;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface DocumentRenditionRepository extends JpaRepository<DocumentRendition, Long> {
+
+    boolean existsByDocumentIdAndKind(Long documentId, RenditionKind kind);
+
+    Optional<DocumentRendition> findFirstBySourceKeyAndKind(String sourceKey, RenditionKind kind);
+
+    @Query("select r from DocumentRendition r join r.document d join d.application a join a.customer c "
+            + "join c.customerProfile p "
+            + "where d.id = :documentId and r.kind = :kind and p.assignedCscEmail = :cscEmail "
+            + "and a.status <> 'REJECTED'")
+    Optional<DocumentRendition> findForCsc(@Param("documentId") Long documentId,
+                                           @Param("kind") RenditionKind kind,
+                                           @Param("cscEmail") String cscEmail);
+}
@@ -0,0 +1,39 @@
+package com.edoc.portal.repository;
+
+import com.edoc.portal.dto.IssuedDocumentExportRow;
+import com.edoc.portal.entity.IssuedDocument;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface IssuedDocumentRepository extends JpaRepository<IssuedDocument, Long> {
+
+    @Query("select i from Application a join a.issuedDocument i join a.customer c "
+            + "where a.id = :applicationId and c.email = :customerEmail and a.status <> 'REJECTED'")
+    Optional<IssuedDocument> findForCustomer(@Param("applicationId") Long applicationId,
+                                             @Param("customerEmail") String customerEmail);
+
+    @Query("select i from Application a join a.issuedDocument i join a.customer c join c.customerProfile p "
+            + "where a.id = :applicationId and p.assignedCscEmail = :cscEmail and a.status <> 'REJECTED'")
+    Optional<IssuedDocument> findForCsc(@Param("applicationId") Long applicationId,
+                                        @Param("cscEmail") String cscEmail);
+
+    // One page of an export, ordered by application id so the next page (or an interrupted export) continues
+    // after the last id.
+    @Query("select new com.edoc.portal.dto.IssuedDocumentExportRow(a.id, i.id, a.applicantName, a.serviceType, "
+            + "i.fileName, i.contentType, i.storageKey, i.fileSize, i.uploadedAt) "
+            + "from Application a join a.issuedDocument i join a.customer c join c.customerProfile p "
+            + "where p.assignedCscEmail = :cscEmail and i.uploadedAt >= :from and i.uploadedAt < :to "
+            + "and a.id > :afterId and a.status <> 'REJECTED' "
+            + "order by a.id asc")
+    List<IssuedDocumentExportRow> findPageForCscExport(@Param("cscEmail") String cscEmail,
+                                                       @Param("from") LocalDateTime from,
+                                                       @Param("to") LocalDateTime to,
+                                                       @Param("afterId") Long afterId,
+                                                       Limit limit);
+}
@@ -0,0 +1,50 @@
+package com.edoc.portal.repository;
+
+import com.edoc.portal.entity.PackedBlob;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface PackedBlobRepository extends JpaRepository<PackedBlob, String> {
+
+    @Transactional
+    @Modifying
+    @Query("update PackedBlob p set p.rehydratedAt = :at where p.storageKey = :storageKey")
+    int markRehydrated(@Param("storageKey") String storageKey, @Param("at") LocalDateTime at);
+
+    @Query("select p.storageKey from PackedBlob p where p.rehydratedAt < :cutoff order by p.rehydratedAt asc")
+    List<String> findRehydratedBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    // Unpacked blobs of applications closed before the cutoff (issue time, or the application date when nothing
+    // was issued) that no open application or pending upload still points at, in key order after a cursor.
+    @Query(value = "SELECT x.storage_key FROM ("
+            + "SELECT d.storage_key AS storage_key FROM application_documents d "
+            + "JOIN applications a ON a.id = d.application_id "
+            + "LEFT JOIN issued_documents i ON i.id = a.issued_document_id "
+            + "WHERE a.status IN (:statuses) AND COALESCE(i.uploaded_at, a.applied_date) < :cutoff "
+            + "UNION SELECT d.original_storage_key FROM application_documents d "
+            + "JOIN applications a ON a.id = d.application_id "
+            + "LEFT JOIN issued_documents i ON i.id = a.issued_document_id "
+            + "WHERE d.original_storage_key IS NOT NULL AND a.status IN (:statuses) "
+            + "AND COALESCE(i.uploaded_at, a.applied_date) < :cutoff "
+            + "UNION SELECT i.storage_key FROM applications a JOIN issued_documents i ON i.id = a.issued_document_id "
+            + "WHERE a.status IN (:statuses) AND i.uploaded_at < :cutoff) x "
+            + "WHERE x.storage_key IS NOT NULL AND x.storage_key > :afterKey "
+            + "AND NOT EXISTS (SELECT 1 FROM packed_blobs p WHERE p.storage_key = x.storage_key) "
+            + "AND NOT EXISTS (SELECT 1 FROM application_documents d2 JOIN applications a2 ON a2.id = d2.application_id "
+            + "WHERE (d2.storage_key = x.storage_key OR d2.original_storage_key = x.storage_key) "
+            + "AND a2.status NOT IN (:statuses)) "
+            + "AND NOT EXISTS (SELECT 1 FROM upload_sessions s WHERE s.storage_key = x.storage_key) "
+            + "ORDER BY x.storage_key LIMIT :limit", nativeQuery = true)
+    List<String> findColdCandidates(@Param("statuses") Collection<String> statuses,
+                                    @Param("cutoff") LocalDateTime cutoff,
+                                    @Param("afterKey") String afterKey,
+                                    @Param("limit") int limit);
+}
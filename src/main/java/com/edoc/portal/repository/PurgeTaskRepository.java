@@ -0,0 +1,21 @@
+package com.edoc.portal.repository;
+
+import com.edoc.portal.entity.PurgeTask;
+import com.edoc.portal.enums.PurgeTarget;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface PurgeTaskRepository extends JpaRepository<PurgeTask, Long> {
+
+    @Query("select t.targetId from PurgeTask t where t.target = :target and t.targetId in :targetIds")
+    List<Long> findQueuedTargetIds(@Param("target") PurgeTarget target, @Param("targetIds") Collection<Long> targetIds);
+
+    @Query("select t from PurgeTask t where t.nextAttemptAt <= :now order by t.nextAttemptAt asc, t.id asc")
+    List<PurgeTask> findDue(@Param("now") LocalDateTime now, Limit limit);
+}
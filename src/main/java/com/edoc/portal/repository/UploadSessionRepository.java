@@ -0,0 +1,29 @@
+package com.edoc.portal.repository;
+
+import com.edoc.portal.entity.UploadSession;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    Optional<UploadSession> findByIdAndOwnerEmail(String id, String ownerEmail);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UploadSession s where s.id = :id and s.ownerEmail = :ownerEmail")
+    Optional<UploadSession> findForUpdate(@Param("id") String id, @Param("ownerEmail") String ownerEmail);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UploadSession s where s.id = :id")
+    Optional<UploadSession> findForUpdate(@Param("id") String id);
+
+    @Query("select s.id from UploadSession s where s.updatedAt < :cutoff order by s.updatedAt asc")
+    List<String> findIdsUpdatedBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+}
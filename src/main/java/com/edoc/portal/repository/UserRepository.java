@@ -1,9 +1,17 @@
 package com.edoc.portal.repository;
 
+import com.edoc.portal.dto.CscUserSummary;
+import com.edoc.portal.dto.CustomerSummary;
 import com.edoc.portal.entity.User;
 import com.edoc.portal.enums.Role;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,9 +19,89 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
 
+    @EntityGraph(User.PROFILES_GRAPH)
+    Optional<User> findWithProfilesByEmail(String email);
+
+    @EntityGraph(User.PROFILES_GRAPH)
+    Optional<User> findWithProfilesById(Long id);
+
+    @EntityGraph(User.PROFILES_GRAPH)
+    List<User> findWithProfilesByRole(Role role);
+
     boolean existsByEmail(String email);
 
     List<User> findByRole(Role role);
 
     List<User> findByRoleAndStatus(Role role, String status);
+
+    String CUSTOMER_SUMMARY_SELECT = "select new com.edoc.portal.dto.CustomerSummary(u.id, "
+            + "coalesce(nullif(p.fullName, ''), u.name), u.email, p.mobileNumber, u.status) ";
+
+    String CSC_SUMMARY_SELECT = "select new com.edoc.portal.dto.CscUserSummary(u.id, p.cscPortalName, "
+            + "coalesce(nullif(p.ownerName, ''), u.name), p.cscId, p.mobileNumber, p.cscCenterAddress, u.email, u.status) ";
+
+    @Query(CUSTOMER_SUMMARY_SELECT
+            + "from User u join u.customerProfile p "
+            + "where p.assignedCscEmail = :cscEmail and u.role = com.edoc.portal.enums.Role.CUSTOMER "
+            + "and u.status = :status order by u.id desc")
+    List<CustomerSummary> findCustomersForCsc(@Param("cscEmail") String cscEmail,
+                                              @Param("status") String status,
+                                              Limit limit);
+
+    @Query(CUSTOMER_SUMMARY_SELECT
+            + "from User u join u.customerProfile p "
+            + "where p.assignedCscEmail = :cscEmail and u.role = com.edoc.portal.enums.Role.CUSTOMER "
+            + "and u.status = :status and u.id < :afterId order by u.id desc")
+    List<CustomerSummary> findCustomersForCscAfter(@Param("cscEmail") String cscEmail,
+                                                   @Param("status") String status,
+                                                   @Param("afterId") Long afterId,
+                                                   Limit limit);
+
+    @Query(CSC_SUMMARY_SELECT
+            + "from User u left join u.cscProfile p "
+            + "where u.role = com.edoc.portal.enums.Role.CSC and u.status <> 'DELETED' order by u.id")
+    List<CscUserSummary> findActiveCscSummaries();
+
+    @Query(CSC_SUMMARY_SELECT
+            + "from User u left join u.cscProfile p "
+            + "where u.role = com.edoc.portal.enums.Role.CSC and u.status = 'DELETED' order by u.id")
+    List<CscUserSummary> findDeletedCscSummaries();
+
+    @Query(CSC_SUMMARY_SELECT
+            + "from User u left join u.cscProfile p "
+            + "where u.role = com.edoc.portal.enums.Role.CSC and u.status = 'ACTIVE' order by u.id")
+    List<CscUserSummary> findApprovedCscSummaries();
+
+    @Query(CSC_SUMMARY_SELECT
+            + "from User u left join u.cscProfile p "
+            + "where u.id = :id and u.role = com.edoc.portal.enums.Role.CSC")
+    Optional<CscUserSummary> findCscSummaryById(@Param("id") Long id);
+
+    @Query("select count(u) > 0 from User u join u.customerProfile p "
+            + "where u.id = :customerId and u.role = com.edoc.portal.enums.Role.CUSTOMER "
+            + "and p.assignedCscEmail = :cscEmail")
+    boolean isCustomerAssignedToCsc(@Param("customerId") Long customerId, @Param("cscEmail") String cscEmail);
+
+    // The requested customers that belong to the CSC, in one query; deleted ones count as gone.
+    @Query(CUSTOMER_SUMMARY_SELECT
+            + "from User u join u.customerProfile p "
+            + "where u.id in :ids and u.role = com.edoc.portal.enums.Role.CUSTOMER "
+            + "and p.assignedCscEmail = :cscEmail and u.status <> 'DELETED'")
+    List<CustomerSummary> findCustomersForCscByIds(@Param("ids") Collection<Long> ids, @Param("cscEmail") String cscEmail);
+
+    // Same ids after a bulk update, deleted ones included, to tell which rows the update actually reached.
+    @Query(CUSTOMER_SUMMARY_SELECT
+            + "from User u join u.customerProfile p "
+            + "where u.id in :ids and u.role = com.edoc.portal.enums.Role.CUSTOMER and p.assignedCscEmail = :cscEmail")
+    List<CustomerSummary> findCustomersForCscByIdsIncludingDeleted(@Param("ids") Collection<Long> ids,
+                                                                   @Param("cscEmail") String cscEmail);
+
+    // Repeats the assignment check so a customer moved to another CSC in between is left alone, and never
+    // brings back a customer deleted in between.
+    @Modifying
+    @Query("update User u set u.status = :status where u.id in :ids and u.status <> :status and u.status <> 'DELETED' "
+            + "and exists (select p.id from CustomerProfile p where p.user = u and p.assignedCscEmail = :cscEmail)")
+    int updateCustomerStatuses(@Param("ids") Collection<Long> ids,
+                               @Param("cscEmail") String cscEmail,
+                               @Param("status") String status);
 }
@@ -0,0 +1,23 @@
+package com.edoc.portal.service;
+
+import com.edoc.portal.dto.ApplicationDetailView;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Per-request cache of "application X as seen by CSC Y"; misses (not found / not assigned) are cached too.
+@Component
+@RequestScope
+public class CscApplicationMemo {
+
+    private final Map<String, Optional<ApplicationDetailView>> applications = new HashMap<>();
+
+    Optional<ApplicationDetailView> application(Long applicationId, String cscEmail,
+                                                Supplier<Optional<ApplicationDetailView>> loader) {
+        return applications.computeIfAbsent(applicationId + "|" + cscEmail, key -> loader.get());
+    }
+}
@@ -0,0 +1,92 @@
+package com.edoc.portal.service;
+
+import com.edoc.portal.repository.ApplicationDocumentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Background processing of freshly stored uploads, after their transaction commits: normalize first so
+// renditions are cut from the content that is actually kept.
+@Component
+public class DocumentPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentPipeline.class);
+
+    private final NormalizationService normalizationService;
+    private final RenditionService renditionService;
+    private final ApplicationDocumentRepository applicationDocumentRepository;
+    private final ThreadPoolTaskExecutor documentProcessingExecutor;
+
+    @Value("${portal.documents.sweep.min-age:10m}")
+    private Duration sweepMinAge;
+
+    @Value("${portal.documents.sweep.max-age:1d}")
+    private Duration sweepMaxAge;
+
+    @Value("${portal.documents.sweep.batch-size:20}")
+    private int sweepBatchSize;
+
+    // Id cursor of the sweep, so documents that keep failing cannot hold back the ones after them.
+    private volatile long sweptUpTo;
+
+    public DocumentPipeline(NormalizationService normalizationService,
+                            RenditionService renditionService,
+                            ApplicationDocumentRepository applicationDocumentRepository,
+                            @Qualifier("documentProcessingExecutor") ThreadPoolTaskExecutor documentProcessingExecutor) {
+        this.normalizationService = normalizationService;
+        this.renditionService = renditionService;
+        this.applicationDocumentRepository = applicationDocumentRepository;
+        this.documentProcessingExecutor = documentProcessingExecutor;
+    }
+
+    @Async("documentProcessingExecutor")
+    @TransactionalEventListener
+    public void onDocumentsStored(DocumentsStoredEvent event) {
+        process(event.documentIds());
+    }
+
+    // Picks up recent uploads that still have no preview because their event was rejected by a full queue or
+    // lost in a restart. Only runs while the queue is empty, so it does not race events still waiting there.
+    @Scheduled(fixedDelayString = "${portal.documents.sweep.interval:PT10M}",
+            initialDelayString = "${portal.documents.sweep.interval:PT10M}")
+    public void sweep() {
+        if (!renditionService.isEnabled() || documentProcessingExecutor.getQueueSize() > 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = applicationDocumentRepository.findIdsWithoutPreview(sweptUpTo, now.minus(sweepMaxAge),
+                now.minus(sweepMinAge), renditionService.renderableContentTypes(), Limit.of(sweepBatchSize));
+        sweptUpTo = ids.size() < sweepBatchSize ? 0 : ids.get(ids.size() - 1);
+        if (!ids.isEmpty()) {
+            log.info("Processing {} document(s) that missed background processing.", ids.size());
+            documentProcessingExecutor.execute(() -> process(ids));
+        }
+    }
+
+    private void process(List<Long> documentIds) {
+        for (Long documentId : documentIds) {
+            try {
+                normalizationService.normalize(documentId);
+            } catch (Exception ex) {
+                log.warn("Could not normalize document {}; keeping it as uploaded.", documentId, ex);
+            }
+            try {
+                renditionService.render(documentId);
+            } catch (Exception ex) {
+                // The preview endpoint falls back to the original, so a failed rendition only costs bandwidth.
+                log.warn("Could not render previews for document {}.", documentId, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.edoc.portal.service;
+
+import java.util.List;
+
+// Published inside the transaction that saved new uploaded documents; listeners run after commit.
+public record DocumentsStoredEvent(List<Long> documentIds) {
+}
@@ -0,0 +1,143 @@
+package com.edoc.portal.service;
+
+import com.edoc.portal.dto.IssuedDocumentExportRow;
+import com.edoc.portal.repository.IssuedDocumentRepository;
+import com.edoc.portal.storage.ZipBundleWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+// Month-end archive of every issued document of a CSC: one ZIP streamed page by page by application id, with a
+// CSV manifest as the last entry. A pooled connection is only borrowed for each page query, never while the
+// entries stream to a slow client; the cap on concurrent exports bounds disk and network load.
+@Service
+public class IssuedDocumentExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(IssuedDocumentExportService.class);
+    private static final String MANIFEST_HEADER =
+            "application_id,issued_document_id,applicant_name,service_type,file_name,entry_name,file_size,issued_at,sha256";
+
+    private final IssuedDocumentRepository issuedDocumentRepository;
+    private final ZipBundleWriter zipBundleWriter;
+    private final Semaphore permits;
+
+    @Value("${portal.exports.page-size:100}")
+    private int pageSize;
+
+    public IssuedDocumentExportService(IssuedDocumentRepository issuedDocumentRepository,
+                                       ZipBundleWriter zipBundleWriter,
+                                       @Value("${portal.exports.max-concurrent:2}") int maxConcurrent) {
+        this.issuedDocumentRepository = issuedDocumentRepository;
+        this.zipBundleWriter = zipBundleWriter;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    public void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Both from and to dates are required.");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("The to date must not be before the from date.");
+        }
+    }
+
+    // Checked before the response starts so a busy server can still answer with a proper status.
+    public boolean isBusy() {
+        return permits.availablePermits() == 0;
+    }
+
+    // Both dates are inclusive. Rows come in application id order, so a cancelled or broken export can be
+    // resumed by passing the application id of the last complete entry (entry names carry it) as afterId.
+    public void export(String cscEmail, LocalDate from, LocalDate to, Long afterId, OutputStream out) throws IOException {
+        validateRange(from, to);
+        if (!permits.tryAcquire()) {
+            throw new IllegalStateException("Too many exports are running; please try again shortly.");
+        }
+        Path manifest = Files.createTempFile("issued-export-", ".csv");
+        try (BufferedWriter csv = Files.newBufferedWriter(manifest, StandardCharsets.UTF_8)) {
+            ZipBundleWriter.Bundle bundle = zipBundleWriter.open(out);
+            csv.write(MANIFEST_HEADER);
+            csv.newLine();
+            int exported = writeDocuments(Names.normalize(cscEmail), from, to, afterId == null ? 0L : afterId, bundle, csv);
+            csv.flush();
+            bundle.add("manifest.csv", manifest, "text/csv");
+            bundle.finish();
+            log.info("Exported {} issued document(s) for {} between {} and {}.", exported, cscEmail, from, to);
+        } finally {
+            Files.deleteIfExists(manifest);
+            permits.release();
+        }
+    }
+
+    private int writeDocuments(String cscEmail,
+                               LocalDate from,
+                               LocalDate to,
+                               long afterId,
+                               ZipBundleWriter.Bundle bundle,
+                               BufferedWriter csv) throws IOException {
+        LocalDateTime fromTime = from.atStartOfDay();
+        LocalDateTime toTime = to.plusDays(1).atStartOfDay();
+        int count = 0;
+        long cursor = afterId;
+        List<IssuedDocumentExportRow> page;
+        do {
+            page = issuedDocumentRepository.findPageForCscExport(cscEmail, fromTime, toTime, cursor, Limit.of(pageSize));
+            for (IssuedDocumentExportRow row : page) {
+                // A client disconnect fails the next write; an async timeout interrupts the thread.
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Export cancelled.");
+                }
+                String entryName = "application-" + row.applicationId() + "-" + Names.sanitize(
+                        row.fileName() == null || row.fileName().isBlank() ? "issued-document.pdf" : row.fileName());
+                bundle.add(entryName, row.storageKey(), row.contentType());
+                csv.write(csvLine(row, entryName));
+                csv.newLine();
+                count++;
+                cursor = row.applicationId();
+            }
+        } while (page.size() == pageSize);
+        return count;
+    }
+
+    private String csvLine(IssuedDocumentExportRow row, String entryName) {
+        return String.join(",",
+                String.valueOf(row.applicationId()),
+                String.valueOf(row.issuedDocumentId()),
+                csvField(row.applicantName()),
+                csvField(row.serviceType()),
+                csvField(row.fileName()),
+                csvField(entryName),
+                row.fileSize() == null ? "" : String.valueOf(row.fileSize()),
+                row.issuedAt() == null ? "" : row.issuedAt().toString(),
+                row.storageKey());
+    }
+
+    // Names and file names come from customers; a leading formula character is neutralized so a spreadsheet
+    // opening the manifest shows the text instead of evaluating it.
+    private String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
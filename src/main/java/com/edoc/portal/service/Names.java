@@ -0,0 +1,19 @@
+package com.edoc.portal.service;
+
+import java.util.Locale;
+
+// Canonical forms of user-supplied names shared by the services: emails as stored and compared in queries,
+// file names as written to the database and into ZIP entries.
+final class Names {
+
+    private Names() {
+    }
+
+    static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static String sanitize(String fileName) {
+        return fileName.replaceAll("[^a-zA-Z0-9._-]", "_");
+    }
+}
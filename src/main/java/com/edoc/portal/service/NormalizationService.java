@@ -0,0 +1,134 @@
+package com.edoc.portal.service;
+
+import com.edoc.portal.entity.ApplicationDocument;
+import com.edoc.portal.imaging.ImageProcessing;
+import com.edoc.portal.repository.ApplicationDocumentRepository;
+import com.edoc.portal.storage.BlobLedger;
+import com.edoc.portal.storage.BlobStore;
+import com.edoc.portal.storage.StoredBlob;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Downscales and recompresses photo/scan uploads to a per-document-type size, dropping EXIF on the way.
+@Service
+public class NormalizationService {
+
+    private final ApplicationDocumentRepository applicationDocumentRepository;
+    private final BlobStore blobStore;
+    private final BlobLedger blobLedger;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${portal.normalization.enabled:true}")
+    private boolean enabled;
+
+    @Value("${portal.normalization.keep-original:false}")
+    private boolean keepOriginal;
+
+    @Value("${portal.normalization.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    @Value("${portal.normalization.default-max-dimension:2400}")
+    private int defaultMaxDimension;
+
+    // Longest side (px) per document type; types not listed use the default.
+    @Value("#{${portal.normalization.max-dimensions:{:}}}")
+    private Map<String, Integer> maxDimensions;
+
+    public NormalizationService(ApplicationDocumentRepository applicationDocumentRepository,
+                                BlobStore blobStore,
+                                BlobLedger blobLedger,
+                                TransactionTemplate transactionTemplate) {
+        this.applicationDocumentRepository = applicationDocumentRepository;
+        this.blobStore = blobStore;
+        this.blobLedger = blobLedger;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void normalize(Long documentId) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        ApplicationDocument doc = applicationDocumentRepository.findById(documentId).orElse(null);
+        // PDFs and formats the JDK cannot decode are kept verbatim. The pipeline may hand over a document again (the
+        // sweep), and every JPEG round loses quality, so a document is only ever normalized once.
+        if (doc == null || doc.getStorageKey() == null || doc.getNormalizedAt() != null
+                || !ImageProcessing.canDecode(doc.getContentType())) {
+            return;
+        }
+        String originalKey = doc.getStorageKey();
+        int maxDimension = maxDimensions.getOrDefault(doc.getDocumentType(), defaultMaxDimension);
+        // JPEGs are rewritten so their EXIF (GPS, device) goes, unless one is already small enough and carries none.
+        if ("image/jpeg".equals(doc.getContentType())) {
+            boolean clean;
+            try (InputStream in = blobStore.open(originalKey)) {
+                clean = ImageProcessing.isCleanJpegWithin(in, maxDimension);
+            }
+            if (clean) {
+                transactionTemplate.executeWithoutResult(status -> markNormalized(documentId, originalKey));
+                return;
+            }
+        }
+        BufferedImage image;
+        try (InputStream in = blobStore.open(originalKey)) {
+            image = ImageProcessing.readScaled(in, maxDimension);
+        }
+        byte[] jpeg = ImageProcessing.encodeJpeg(image, jpegQuality);
+        // Other formats are only converted when it saves space.
+        if (!"image/jpeg".equals(doc.getContentType()) && doc.getFileSize() != null && jpeg.length >= doc.getFileSize()) {
+            transactionTemplate.executeWithoutResult(status -> markNormalized(documentId, originalKey));
+            return;
+        }
+        StoredBlob blob = blobStore.put(new ByteArrayInputStream(jpeg));
+        Boolean replaced;
+        try {
+            replaced = transactionTemplate.execute(status -> replaceContent(documentId, originalKey, blob));
+        } catch (RuntimeException ex) {
+            blobLedger.discard(blob.key(), blob.size());
+            throw ex;
+        }
+        if (!Boolean.TRUE.equals(replaced)) {
+            blobLedger.discard(blob.key(), blob.size());
+        }
+    }
+
+    // Swaps the document onto the normalized blob unless it changed or disappeared while we were working.
+    private boolean replaceContent(Long documentId, String originalKey, StoredBlob blob) {
+        ApplicationDocument doc = applicationDocumentRepository.findById(documentId).orElse(null);
+        if (doc == null || !originalKey.equals(doc.getStorageKey())) {
+            return false;
+        }
+        blobLedger.retain(blob.key(), blob.size());
+        if (keepOriginal) {
+            doc.setOriginalStorageKey(originalKey);
+        } else {
+            blobLedger.release(originalKey);
+        }
+        doc.setStorageKey(blob.key());
+        doc.setFileSize(blob.size());
+        doc.setNormalizedAt(LocalDateTime.now());
+        doc.setContentType("image/jpeg");
+        doc.setFileName(jpegFileName(doc.getFileName()));
+        return true;
+    }
+
+    // Records that the content as it stands needs no normalization, unless it was replaced meanwhile.
+    private void markNormalized(Long documentId, String storageKey) {
+        applicationDocumentRepository.findById(documentId)
+                .filter(doc -> storageKey.equals(doc.getStorageKey()))
+                .ifPresent(doc -> doc.setNormalizedAt(LocalDateTime.now()));
+    }
+
+    private String jpegFileName(String fileName) {
+        String base = fileName == null || fileName.isBlank() ? "document" : fileName;
+        int dot = base.lastIndexOf('.');
+        return (dot > 0 ? base.substring(0, dot) : base) + ".jpg";
+    }
+}
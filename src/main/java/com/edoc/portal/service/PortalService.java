@@ -1,25 +1,63 @@
 package com.edoc.portal.service;
 
+import com.edoc.portal.dto.ApplicationDetailView;
+import com.edoc.portal.dto.ApplicationSummary;
+import com.edoc.portal.dto.BulkCustomerResult;
+import com.edoc.portal.dto.BulkStatusResult;
+import com.edoc.portal.dto.CscUserSummary;
+import com.edoc.portal.dto.CustomerSummary;
+import com.edoc.portal.dto.DocumentMetadata;
+import com.edoc.portal.dto.KeysetCursor;
+import com.edoc.portal.dto.KeysetPage;
 import com.edoc.portal.entity.Application;
 import com.edoc.portal.entity.ApplicationDocument;
 import com.edoc.portal.entity.AdminProfile;
+import com.edoc.portal.entity.IssuedDocument;
+import com.edoc.portal.entity.DocumentRendition;
+import com.edoc.portal.entity.UploadSession;
 import com.edoc.portal.entity.User;
+import com.edoc.portal.enums.CustomerAction;
+import com.edoc.portal.enums.PurgeTarget;
+import com.edoc.portal.enums.RenditionKind;
 import com.edoc.portal.enums.Role;
+import com.edoc.portal.repository.ApplicationDocumentRepository;
 import com.edoc.portal.repository.ApplicationRepository;
 import com.edoc.portal.repository.CscUserProfileRepository;
 import com.edoc.portal.repository.CustomerProfileRepository;
+import com.edoc.portal.repository.DocumentRenditionRepository;
+import com.edoc.portal.repository.IssuedDocumentRepository;
 import com.edoc.portal.repository.UserRepository;
+import com.edoc.portal.storage.BlobLedger;
+import com.edoc.portal.storage.BlobStore;
+import com.edoc.portal.storage.UploadPipeline;
+import com.edoc.portal.storage.UploadedContent;
+import com.edoc.portal.storage.ZipBundleWriter;
 import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.core.io.Resource;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 public class PortalService {
@@ -28,20 +66,67 @@ public class PortalService {
     private final ApplicationRepository applicationRepository;
     private final CscUserProfileRepository cscUserProfileRepository;
     private final CustomerProfileRepository customerProfileRepository;
+    private final ApplicationDocumentRepository applicationDocumentRepository;
+    private final IssuedDocumentRepository issuedDocumentRepository;
+    private final DocumentRenditionRepository documentRenditionRepository;
+    private final BlobStore blobStore;
+    private final BlobLedger blobLedger;
+    private final UploadPipeline uploadPipeline;
+    private final ZipBundleWriter zipBundleWriter;
+    private final UploadSessionService uploadSessionService;
+    private final PurgeService purgeService;
+    private final CscApplicationMemo cscApplicationMemo;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
     private final PasswordEncoder passwordEncoder;
 
+    @Value("${portal.csc.customers.bulk-max:500}")
+    private int bulkMaxCustomers;
+
+    @Value("${portal.csc.applications.bulk-max:500}")
+    private int bulkMaxApplications;
+
     public PortalService(UserRepository userRepository,
                          ApplicationRepository applicationRepository,
                          CscUserProfileRepository cscUserProfileRepository,
                          CustomerProfileRepository customerProfileRepository,
+                         ApplicationDocumentRepository applicationDocumentRepository,
+                         IssuedDocumentRepository issuedDocumentRepository,
+                         DocumentRenditionRepository documentRenditionRepository,
+                         BlobStore blobStore,
+                         BlobLedger blobLedger,
+                         UploadPipeline uploadPipeline,
+                         ZipBundleWriter zipBundleWriter,
+                         UploadSessionService uploadSessionService,
+                         PurgeService purgeService,
+                         CscApplicationMemo cscApplicationMemo,
+                         TransactionTemplate transactionTemplate,
+                         ApplicationEventPublisher eventPublisher,
                          PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
         this.applicationRepository = applicationRepository;
         this.cscUserProfileRepository = cscUserProfileRepository;
         this.customerProfileRepository = customerProfileRepository;
+        this.applicationDocumentRepository = applicationDocumentRepository;
+        this.issuedDocumentRepository = issuedDocumentRepository;
+        this.documentRenditionRepository = documentRenditionRepository;
+        this.blobStore = blobStore;
+        this.blobLedger = blobLedger;
+        this.uploadPipeline = uploadPipeline;
+        this.zipBundleWriter = zipBundleWriter;
+        this.uploadSessionService = uploadSessionService;
+        this.purgeService = purgeService;
+        this.cscApplicationMemo = cscApplicationMemo;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
         this.passwordEncoder = passwordEncoder;
     }
 
+    // Statuses a CSC can move many applications between at once. SUCCESS needs an issued PDF and REJECTED starts
+    // a purge, so both stay on the single-application form; IN_PROCESS rows are listed as applied.
+    private static final List<String> BULK_TARGET_STATUSES = List.of("PENDING", "APPLIED");
+    private static final List<String> BULK_SOURCE_STATUSES = List.of("PENDING", "APPLIED", "IN_PROCESS");
+
     // Central service-document configuration used by apply form and upload labeling.
     private static final List<ServiceDefinition> SERVICE_DEFINITIONS = List.of(
             new ServiceDefinition("Nationality Certificate", List.of(
@@ -93,8 +178,8 @@ public class PortalService {
 
     @PostConstruct
     public void init() {
-        User admin = userRepository.findByEmail("vaibhav")
-                .orElseGet(() -> userRepository.findByRole(Role.ADMIN).stream().findFirst().orElse(new User()));
+        User admin = userRepository.findWithProfilesByEmail("vaibhav")
+                .orElseGet(() -> userRepository.findWithProfilesByRole(Role.ADMIN).stream().findFirst().orElse(new User()));
         admin.setName("Vaibhav");
         admin.setEmail("vaibhav");
         admin.setPassword(passwordEncoder.encode("Password1234@"));
@@ -121,7 +206,7 @@ public class PortalService {
     }
 
     public User registerCustomer(String fullName, String email, String mobile, String password, String assignedCscEmail) {
-        String normalizedEmail = normalize(email);
+        String normalizedEmail = Names.normalize(email);
         String trimmedMobile = trim(mobile);
         if (userRepository.existsByEmail(normalizedEmail)) {
             throw new IllegalArgumentException("Email already exists.");
@@ -130,7 +215,7 @@ public class PortalService {
                 && customerProfileRepository.existsByMobileNumber(trimmedMobile)) {
             throw new IllegalArgumentException("Mobile number already exists.");
         }
-        String normalizedAssignedCsc = normalize(assignedCscEmail);
+        String normalizedAssignedCsc = Names.normalize(assignedCscEmail);
         if (normalizedAssignedCsc.isBlank()) {
             throw new IllegalArgumentException("Please select a CSC user.");
         }
@@ -159,7 +244,7 @@ public class PortalService {
                             String mobileNumber,
                             String cscCenterAddress,
                             String status) {
-        String normalizedEmail = normalize(usernameEmail);
+        String normalizedEmail = Names.normalize(usernameEmail);
         String trimmedCscId = trim(cscId);
         String trimmedMobile = trim(mobileNumber);
         if (userRepository.existsByEmail(normalizedEmail)) {
@@ -187,44 +272,70 @@ public class PortalService {
     }
 
     public Optional<User> findUserByEmail(String email) {
-        return userRepository.findByEmail(normalize(email));
+        return userRepository.findByEmail(Names.normalize(email));
     }
 
-    public Optional<User> findUserById(Long id) {
-        return userRepository.findById(id);
+    @Transactional(readOnly = true)
+    public Optional<CscUserSummary> getCscUser(Long id) {
+        return userRepository.findCscSummaryById(id);
     }
 
-    public User saveUser(User user) {
-        return userRepository.save(user);
+    @Transactional
+    public void updateCscUser(Long id,
+                              String ownerName,
+                              String usernameEmail,
+                              String password,
+                              String cscPortalName,
+                              String cscId,
+                              String mobileNumber,
+                              String cscCenterAddress) {
+        User user = userRepository.findWithProfilesById(id)
+                .filter(u -> u.getRole() == Role.CSC)
+                .orElseThrow(() -> new IllegalArgumentException("CSC user not found."));
+        user.setCscPortalName(cscPortalName);
+        user.setOwnerName(ownerName);
+        user.setCscId(cscId);
+        user.setMobileNumber(mobileNumber);
+        user.setCscCenterAddress(cscCenterAddress);
+        user.setUsernameEmail(usernameEmail);
+        if (password != null && !password.isBlank()) {
+            user.setPassword(passwordEncoder.encode(password));
+        }
     }
 
-    public String encodePassword(String rawPassword) {
-        return passwordEncoder.encode(rawPassword);
+    public List<CscUserSummary> getApprovedCscUsers() {
+        return userRepository.findApprovedCscSummaries();
     }
 
-    public List<User> getCscUsers() {
-        return userRepository.findByRole(Role.CSC);
+    public List<CscUserSummary> getActiveCscSummaries() {
+        return userRepository.findActiveCscSummaries();
     }
 
-    public List<User> getApprovedCscUsers() {
-        return getCscUsers().stream().filter(u -> "ACTIVE".equalsIgnoreCase(u.getStatus())).toList();
+    public List<CscUserSummary> getDeletedCscSummaries() {
+        return userRepository.findDeletedCscSummaries();
     }
 
-    public List<User> getPendingCustomersForCsc(String cscEmail) {
-        String normalizedCscEmail = normalize(cscEmail);
-        return userRepository.findByRole(Role.CUSTOMER).stream()
-                .filter(u -> "PENDING".equalsIgnoreCase(u.getStatus()))
-                .filter(u -> matchesAssignedCsc(u.getAssignedCscEmail(), normalizedCscEmail))
-                .toList();
+    public KeysetPage<CustomerSummary> getPendingCustomersForCsc(String cscEmail, String after, int pageSize) {
+        return getCustomersForCsc(cscEmail, "PENDING", after, pageSize);
     }
 
+    public KeysetPage<CustomerSummary> getActiveCustomersForCsc(String cscEmail, String after, int pageSize) {
+        return getCustomersForCsc(cscEmail, "ACTIVE", after, pageSize);
+    }
 
-    public List<User> getActiveCustomersForCsc(String cscEmail) {
-        String normalizedCscEmail = normalize(cscEmail);
-        return userRepository.findByRole(Role.CUSTOMER).stream()
-                .filter(u -> "ACTIVE".equalsIgnoreCase(u.getStatus()))
-                .filter(u -> matchesAssignedCsc(u.getAssignedCscEmail(), normalizedCscEmail))
-                .toList();
+    // Customers of one CSC in one status, newest first, paged by id.
+    private KeysetPage<CustomerSummary> getCustomersForCsc(String cscEmail, String status, String after, int pageSize) {
+        String normalizedCscEmail = Names.normalize(cscEmail);
+        Long afterId = parseId(after);
+        Limit limit = Limit.of(pageSize + 1);
+        List<CustomerSummary> rows = afterId == null
+                ? userRepository.findCustomersForCsc(normalizedCscEmail, status, limit)
+                : userRepository.findCustomersForCscAfter(normalizedCscEmail, status, afterId, limit);
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<CustomerSummary> page = rows.subList(0, pageSize);
+        return new KeysetPage<>(List.copyOf(page), String.valueOf(page.get(page.size() - 1).id()));
     }
 
     public void updateUserStatus(Long userId, String status) {
@@ -234,16 +345,70 @@ public class PortalService {
         userRepository.save(user);
     }
 
+    // Only marks the customer deleted, which also blocks sign-in; the purge worker removes applications and content.
+    @Transactional
     public void deleteUser(Long userId) {
-        userRepository.deleteById(userId);
+        userRepository.findById(userId).ifPresent(user -> {
+            user.setStatus("DELETED");
+            purgeService.enqueue(PurgeTarget.USER, user.getId());
+        });
+    }
+
+    // Authorizes the whole selection in one query and changes it with one UPDATE, in one transaction.
+    @Transactional
+    public BulkCustomerResult updateCustomersForCsc(String cscEmail, Collection<Long> customerIds, CustomerAction action) {
+        Set<Long> requested = new LinkedHashSet<>(customerIds);
+        requested.remove(null);
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("Select at least one customer.");
+        }
+        if (requested.size() > bulkMaxCustomers) {
+            throw new IllegalArgumentException("Select at most " + bulkMaxCustomers + " customers at a time.");
+        }
+        String normalizedCscEmail = Names.normalize(cscEmail);
+        String targetStatus = action.targetStatus();
+        Map<Long, String> statuses = new HashMap<>();
+        userRepository.findCustomersForCscByIds(requested, normalizedCscEmail)
+                .forEach(customer -> statuses.put(customer.id(), customer.status()));
+        List<Long> candidates = new ArrayList<>();
+        List<Long> updated = new ArrayList<>();
+        List<Long> unchanged = new ArrayList<>();
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : requested) {
+            String status = statuses.get(id);
+            if (status == null) {
+                notFound.add(id);
+            } else if (targetStatus.equalsIgnoreCase(status)) {
+                unchanged.add(id);
+            } else {
+                candidates.add(id);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return new BulkCustomerResult(action, updated, unchanged, notFound);
+        }
+        int changed = userRepository.updateCustomerStatuses(candidates, normalizedCscEmail, targetStatus);
+        if (changed == candidates.size()) {
+            updated.addAll(candidates);
+        } else {
+            // Some customers changed between the read and the update. Those now reassigned or deleted are reported as
+            // gone; those in the target status end where asked even if a concurrent identical action got there first,
+            // and enqueueAll skips a purge that is already queued.
+            Map<Long, String> after = new HashMap<>();
+            userRepository.findCustomersForCscByIdsIncludingDeleted(candidates, normalizedCscEmail)
+                    .forEach(customer -> after.put(customer.id(), customer.status()));
+            for (Long id : candidates) {
+                (targetStatus.equalsIgnoreCase(after.get(id)) ? updated : notFound).add(id);
+            }
+        }
+        if (action == CustomerAction.REMOVE) {
+            purgeService.enqueueAll(PurgeTarget.USER, updated);
+        }
+        return new BulkCustomerResult(action, updated, unchanged, notFound);
     }
 
     public boolean isCustomerAssignedToCsc(Long customerId, String cscEmail) {
-        User customer = userRepository.findById(customerId).orElse(null);
-        if (customer == null || customer.getRole() != Role.CUSTOMER) {
-            return false;
-        }
-        return matchesAssignedCsc(customer.getAssignedCscEmail(), normalize(cscEmail));
+        return userRepository.isCustomerAssignedToCsc(customerId, Names.normalize(cscEmail));
     }
 
     public Application applyForService(String customerEmail,
@@ -252,8 +417,9 @@ public class PortalService {
                                        String mobile,
                                        String description,
                                        boolean paymentDone,
-                                       MultipartFile[] documents) throws IOException {
-        User customer = userRepository.findByEmail(normalize(customerEmail))
+                                       MultipartFile[] documents,
+                                       List<String> uploadIds) throws IOException {
+        User customer = userRepository.findByEmail(Names.normalize(customerEmail))
                 .orElseThrow(() -> new IllegalArgumentException("Customer not found."));
 
         Application app = new Application();
@@ -265,141 +431,326 @@ public class PortalService {
         app.setStatus("PENDING");
         app.setAppliedDate(LocalDateTime.now());
         app.setDocumentPath("");
-        app.setUploadedDocumentEntities(buildUploadedDocuments(app, serviceType, documents));
-        return applicationRepository.save(app);
-    }
-
-    public List<Application> getCustomerApplications(String customerEmail) {
-        User customer = userRepository.findByEmail(normalize(customerEmail)).orElse(null);
-        if (customer == null) {
-            return List.of();
-        }
-        return applicationRepository.findByCustomerOrderByAppliedDateDesc(customer);
-    }
-
-    public List<Application> getAllApplicationsForCsc(String cscEmail) {
-        String normalizedCscEmail = normalize(cscEmail);
-        return applicationRepository.findAllByOrderByAppliedDateDesc().stream()
-                .filter(a -> a.getCustomer() != null)
-                .filter(a -> matchesAssignedCsc(a.getCustomer().getAssignedCscEmail(), normalizedCscEmail))
-                .toList();
-    }
-
-    public Optional<Application> findApplicationById(Long id) {
-        return applicationRepository.findById(id);
-    }
-
-    public boolean isApplicationAssignedToCsc(Long applicationId, String cscEmail) {
-        Application app = applicationRepository.findById(applicationId).orElse(null);
-        if (app == null || app.getCustomer() == null) {
-            return false;
-        }
-        return matchesAssignedCsc(app.getCustomer().getAssignedCscEmail(), normalize(cscEmail));
-    }
-
+        List<String> claimedUploads = new ArrayList<>();
+        List<UploadedContent> storedContent = new ArrayList<>();
+        try {
+            app.setUploadedDocumentEntities(
+                    buildUploadedDocuments(app, serviceType, documents, uploadIds, claimedUploads, storedContent));
+            // Content is already in the store; only the rows and their blob references need a transaction.
+            return transactionTemplate.execute(status -> {
+                app.getUploadedDocumentEntities().forEach(doc -> blobLedger.retain(doc.getStorageKey(), doc.getFileSize()));
+                claimedUploads.forEach(uploadId -> uploadSessionService.claim(customer.getEmail(), uploadId));
+                Application saved = applicationRepository.save(app);
+                eventPublisher.publishEvent(new DocumentsStoredEvent(
+                        saved.getUploadedDocumentEntities().stream().map(ApplicationDocument::getId).toList()));
+                return saved;
+            });
+        } catch (IOException | RuntimeException ex) {
+            // Nothing references content this call wrote unless the transaction committed.
+            storedContent.forEach(content -> blobLedger.discard(content.key(), content.size()));
+            throw ex;
+        }
+    }
+
+    public List<ApplicationSummary> getCustomerApplications(String customerEmail) {
+        return applicationRepository.findSummariesForCustomer(Names.normalize(customerEmail));
+    }
+
+    // Keyset page of a CSC's applications in the given statuses, newest first; one extra row detects a next page.
+    public KeysetPage<ApplicationSummary> getApplicationsForCsc(String cscEmail,
+                                                         Collection<String> statuses,
+                                                         String after,
+                                                         int pageSize) {
+        String normalizedCscEmail = Names.normalize(cscEmail);
+        KeysetCursor cursor = KeysetCursor.parse(after);
+        Limit limit = Limit.of(pageSize + 1);
+        List<ApplicationSummary> rows = cursor == null
+                ? applicationRepository.findFirstPageForCsc(normalizedCscEmail, statuses, limit)
+                : applicationRepository.findPageForCscAfter(normalizedCscEmail, statuses, cursor.appliedDate(), cursor.id(), limit);
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<ApplicationSummary> page = rows.subList(0, pageSize);
+        ApplicationSummary last = page.get(page.size() - 1);
+        return new KeysetPage<>(List.copyOf(page), new KeysetCursor(last.appliedDate(), last.id()).encode());
+    }
+
+    // One query resolves both existence and CSC assignment; repeated lookups in the same request hit the memo.
+    public Optional<ApplicationDetailView> getApplicationForCsc(Long applicationId, String cscEmail) {
+        String normalizedCscEmail = Names.normalize(cscEmail);
+        if (RequestContextHolder.getRequestAttributes() == null) {
+            return applicationRepository.findDetailForCsc(applicationId, normalizedCscEmail);
+        }
+        return cscApplicationMemo.application(applicationId, normalizedCscEmail,
+                () -> applicationRepository.findDetailForCsc(applicationId, normalizedCscEmail));
+    }
+
+    public List<DocumentMetadata> getUploadedDocumentMetadata(Long applicationId) {
+        return applicationDocumentRepository.findMetadataByApplicationId(applicationId);
+    }
+
+    public List<DocumentMetadata> getUploadedDocumentsForCsc(Long applicationId, String cscEmail) {
+        List<DocumentMetadata> documents =
+                applicationDocumentRepository.findMetadataForCscApplication(applicationId, Names.normalize(cscEmail));
+        if (documents.isEmpty()) {
+            throw new IllegalArgumentException("No documents available.");
+        }
+        return documents;
+    }
+
+    // Runs on the streaming thread after the controller has returned, so it only reads the blob store.
+    public void writeDocumentBundle(List<DocumentMetadata> documents, OutputStream out) throws IOException {
+        ZipBundleWriter.Bundle bundle = zipBundleWriter.open(out);
+        for (DocumentMetadata doc : documents) {
+            String fileName = doc.fileName() == null || doc.fileName().isBlank() ? "document" : Names.sanitize(doc.fileName());
+            String name = doc.documentType() == null || doc.documentType().isBlank()
+                    ? fileName
+                    : Names.sanitize(doc.documentType()) + "-" + fileName;
+            bundle.add(name, doc.digest(), doc.contentType());
+        }
+        bundle.finish();
+    }
+
+    // The issued PDF is written to the store before the transaction, like uploads in applyForService, so it can
+    // be discarded whatever makes the update fail, including a version conflict at commit.
     public void updateApplicationStatus(Long applicationId,
+                                        String cscEmail,
                                         String status,
                                         String message,
                                         MultipartFile issuedDocument) throws IOException {
-        Application app = applicationRepository.findById(applicationId)
-                .orElseThrow(() -> new IllegalArgumentException("Application not found."));
         String normalizedStatus = status == null ? "" : status.toUpperCase(Locale.ROOT);
+        boolean rejected = "REJECTED".equalsIgnoreCase(normalizedStatus);
+        UploadedContent issuedContent = null;
+        if (!rejected && issuedDocument != null && !issuedDocument.isEmpty()) {
+            if (!isPdfFile(issuedDocument)) {
+                throw new IllegalArgumentException("Issued document must be a PDF file.");
+            }
+            issuedContent = storeContent(issuedDocument);
+            if (!"application/pdf".equals(issuedContent.detectedContentType())) {
+                blobLedger.discard(issuedContent.key(), issuedContent.size());
+                throw new IllegalArgumentException("Issued document must be a PDF file.");
+            }
+        }
+        UploadedContent content = issuedContent;
+        String issuedFileName = content == null ? null : Names.sanitize(issuedDocument.getOriginalFilename() == null
+                ? "issued-document.pdf"
+                : issuedDocument.getOriginalFilename());
+        try {
+            transactionTemplate.executeWithoutResult(tx ->
+                    applyStatusUpdate(applicationId, Names.normalize(cscEmail), normalizedStatus, message, content, issuedFileName));
+        } catch (RuntimeException ex) {
+            if (content != null) {
+                blobLedger.discard(content.key(), content.size());
+            }
+            throw ex;
+        }
+    }
+
+    private void applyStatusUpdate(Long applicationId,
+                                   String cscEmail,
+                                   String normalizedStatus,
+                                   String message,
+                                   UploadedContent content,
+                                   String issuedFileName) {
+        Application app = applicationRepository.findByIdForCsc(applicationId, cscEmail)
+                .orElseThrow(() -> new IllegalArgumentException("You are not authorized to update this application."));
         app.setStatus(normalizedStatus);
         if (message != null && !message.isBlank()) {
             app.setMessage(message.trim());
         }
-        // REJECTED is terminal: clear uploaded artifacts for this application.
+        // One entry per dropped row: identical uploads share a key but each holds its own reference.
+        List<String> releasedKeys = new ArrayList<>();
+        // REJECTED is terminal: the purge worker removes the uploaded artifacts, the request only records it.
         if ("REJECTED".equalsIgnoreCase(normalizedStatus)) {
             app.setDocumentPath(null);
             app.setIssuedDocumentPath(null);
-            app.setIssuedDocumentName(null);
-            app.setIssuedDocumentContentType(null);
-            app.setIssuedDocumentData(null);
-            app.getUploadedDocumentEntities().clear();
-        } else if (issuedDocument != null && !issuedDocument.isEmpty()) {
-            if (!isPdfFile(issuedDocument)) {
-                throw new IllegalArgumentException("Issued document must be a PDF file.");
-            }
-            app.setIssuedDocumentName(sanitize(issuedDocument.getOriginalFilename() == null
-                    ? "issued-document.pdf"
-                    : issuedDocument.getOriginalFilename()));
-            app.setIssuedDocumentContentType("application/pdf");
-            app.setIssuedDocumentData(issuedDocument.getBytes());
+            purgeService.enqueue(PurgeTarget.APPLICATION, app.getId());
+        } else if (content != null) {
+            blobLedger.retain(content.key(), content.size());
+            IssuedDocument issued = app.getIssuedDocument() == null ? new IssuedDocument() : app.getIssuedDocument();
+            releasedKeys.add(issued.getStorageKey());
+            issued.setFileName(issuedFileName);
+            issued.setContentType("application/pdf");
+            issued.setStorageKey(content.key());
+            issued.setFileSize(content.size());
+            issued.setUploadedAt(LocalDateTime.now());
+            app.setIssuedDocument(issued);
             app.setIssuedDocumentPath(null);
         }
         applicationRepository.save(app);
+        releasedKeys.forEach(blobLedger::release);
+    }
+
+    // Assignment, status and version of every selected application come from one query. The change itself is a
+    // version-checked UPDATE per distinct listed version (usually one statement) that never loads the entities.
+    @Transactional
+    public BulkStatusResult updateApplicationStatusesForCsc(String cscEmail,
+                                                            Map<Long, Long> listedVersions,
+                                                            String status) {
+        String targetStatus = status == null ? "" : status.trim().toUpperCase(Locale.ROOT);
+        if (!BULK_TARGET_STATUSES.contains(targetStatus)) {
+            throw new IllegalArgumentException("Only Pending and Applied can be set for several applications at once.");
+        }
+        Map<Long, Long> requested = new LinkedHashMap<>(listedVersions);
+        requested.remove(null);
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("Select at least one application.");
+        }
+        if (requested.size() > bulkMaxApplications) {
+            throw new IllegalArgumentException("Select at most " + bulkMaxApplications + " applications at a time.");
+        }
+        String normalizedCscEmail = Names.normalize(cscEmail);
+        Map<Long, ApplicationSummary> current = new HashMap<>();
+        applicationRepository.findSummariesForCscByIds(requested.keySet(), normalizedCscEmail)
+                .forEach(app -> current.put(app.id(), app));
+        List<Long> candidates = new ArrayList<>();
+        List<Long> updated = new ArrayList<>();
+        List<Long> unchanged = new ArrayList<>();
+        List<Long> stale = new ArrayList<>();
+        List<Long> notAllowed = new ArrayList<>();
+        List<Long> notFound = new ArrayList<>();
+        Map<Long, List<Long>> idsByVersion = new TreeMap<>();
+        requested.forEach((id, listedVersion) -> {
+            ApplicationSummary app = current.get(id);
+            if (app == null) {
+                notFound.add(id);
+            } else if (targetStatus.equalsIgnoreCase(app.status())) {
+                unchanged.add(id);
+            } else if (!BULK_SOURCE_STATUSES.contains(app.status().toUpperCase(Locale.ROOT))) {
+                notAllowed.add(id);
+            } else if (listedVersion == null || app.version() != listedVersion) {
+                stale.add(id);
+            } else {
+                candidates.add(id);
+                idsByVersion.computeIfAbsent(app.version(), version -> new ArrayList<>()).add(id);
+            }
+        });
+        int changed = 0;
+        for (Map.Entry<Long, List<Long>> group : idsByVersion.entrySet()) {
+            changed += applicationRepository.updateStatusesForCsc(group.getValue(), group.getKey(),
+                    BULK_SOURCE_STATUSES, targetStatus, normalizedCscEmail);
+        }
+        if (changed == candidates.size()) {
+            updated.addAll(candidates);
+        } else {
+            // Some rows changed between the read and the update; only those now one version past the listed one are ours.
+            Map<Long, ApplicationSummary> after = new HashMap<>();
+            applicationRepository.findSummariesForCscByIds(candidates, normalizedCscEmail)
+                    .forEach(app -> after.put(app.id(), app));
+            for (Long id : candidates) {
+                ApplicationSummary app = after.get(id);
+                boolean ours = app != null && targetStatus.equalsIgnoreCase(app.status())
+                        && app.version() == requested.get(id) + 1;
+                (ours ? updated : stale).add(id);
+            }
+        }
+        return new BulkStatusResult(targetStatus, updated, unchanged, stale, notAllowed, notFound);
     }
 
-    public DocumentFile getIssuedDocumentFile(Long applicationId, String email, boolean allowAnyRole) throws IOException {
-        Application app = applicationRepository.findById(applicationId)
-                .orElseThrow(() -> new IllegalArgumentException("Application not found."));
-        if (!allowAnyRole && !normalize(email).equals(normalize(app.getCustomer().getEmail()))) {
-            throw new IllegalArgumentException("Not authorized.");
-        }
-        if (app.getIssuedDocumentData() != null && app.getIssuedDocumentData().length > 0) {
-            String fileName = app.getIssuedDocumentName() == null || app.getIssuedDocumentName().isBlank()
-                    ? "issued-document.pdf"
-                    : app.getIssuedDocumentName();
-            String contentType = app.getIssuedDocumentContentType() == null || app.getIssuedDocumentContentType().isBlank()
-                    ? "application/pdf"
-                    : app.getIssuedDocumentContentType();
-            return new DocumentFile(app.getIssuedDocumentData(), fileName, contentType);
-        }
-        throw new IllegalArgumentException("Issued document not available.");
+    public DocumentFile getIssuedDocumentForCustomer(Long applicationId, String customerEmail) {
+        return toDocumentFile(issuedDocumentRepository.findForCustomer(applicationId, Names.normalize(customerEmail))
+                .orElseThrow(() -> new IllegalArgumentException("Issued document not available.")));
     }
 
-    public DocumentFile getUploadedDocumentByPseudoId(Long docId) throws IOException {
-        long appId = docId / 1000L;
-        int index = (int) (docId % 1000L) - 1;
-        if (appId <= 0 || index < 0) {
-            throw new IllegalArgumentException("Invalid document id.");
-        }
+    public DocumentFile getIssuedDocumentForCsc(Long applicationId, String cscEmail) {
+        return toDocumentFile(issuedDocumentRepository.findForCsc(applicationId, Names.normalize(cscEmail))
+                .orElseThrow(() -> new IllegalArgumentException("Issued document not available.")));
+    }
 
-        Application app = applicationRepository.findById(appId)
-                .orElseThrow(() -> new IllegalArgumentException("Application not found."));
-        List<ApplicationDocument> dbDocs = app.getUploadedDocumentEntities();
-        if (index >= dbDocs.size()) {
-            throw new IllegalArgumentException("Document not found.");
-        }
-        ApplicationDocument dbDoc = dbDocs.get(index);
-        String fileName = dbDoc.getFileName() == null || dbDoc.getFileName().isBlank() ? "document" : dbDoc.getFileName();
-        String contentType = dbDoc.getContentType() == null || dbDoc.getContentType().isBlank()
+    private DocumentFile toDocumentFile(IssuedDocument issued) {
+        String fileName = issued.getFileName() == null || issued.getFileName().isBlank()
+                ? "issued-document.pdf"
+                : issued.getFileName();
+        String contentType = issued.getContentType() == null || issued.getContentType().isBlank()
+                ? "application/pdf"
+                : issued.getContentType();
+        return new DocumentFile(issued.getStorageKey(), fileName, contentType, issued.getFileSize(), issued.getUploadedAt());
+    }
+
+    public DocumentFile getUploadedDocumentForCsc(Long documentId, String cscEmail) {
+        DocumentMetadata doc = applicationDocumentRepository.findMetadataForCsc(documentId, Names.normalize(cscEmail))
+                .orElseThrow(() -> new IllegalArgumentException("Document not found."));
+        String fileName = doc.fileName() == null || doc.fileName().isBlank() ? "document" : doc.fileName();
+        String contentType = doc.contentType() == null || doc.contentType().isBlank()
                 ? resolveContentType(fileName)
-                : dbDoc.getContentType();
-        return new DocumentFile(dbDoc.getData(), fileName, contentType);
+                : doc.contentType();
+        return new DocumentFile(doc.digest(), fileName, contentType, doc.fileSize(), doc.uploadedAt());
     }
 
-    private List<ApplicationDocument> buildUploadedDocuments(Application app,
-                                                             String serviceType,
-                                                             MultipartFile[] documents) throws IOException {
-        if (documents == null || documents.length == 0) {
-            return new ArrayList<>();
+    // Small JPEG rendition when one has been generated, otherwise the original itself.
+    public DocumentFile getDocumentRenditionForCsc(Long documentId, String cscEmail, RenditionKind kind) {
+        DocumentRendition rendition = documentRenditionRepository.findForCsc(documentId, kind, Names.normalize(cscEmail)).orElse(null);
+        if (rendition == null) {
+            return getUploadedDocumentForCsc(documentId, cscEmail);
         }
+        String fileName = kind.name().toLowerCase(Locale.ROOT) + "-" + documentId + ".jpg";
+        return new DocumentFile(rendition.getStorageKey(), fileName, rendition.getContentType(), rendition.getFileSize(),
+                rendition.getCreatedAt());
+    }
 
+    // Slot i is either the i-th multipart file or, when uploadIds[i] is set, a completed chunked upload.
+    private List<ApplicationDocument> buildUploadedDocuments(Application app,
+                                                             String serviceType,
+                                                             MultipartFile[] documents,
+                                                             List<String> uploadIds,
+                                                             List<String> claimedUploads,
+                                                             List<UploadedContent> storedContent) throws IOException {
+        int fileCount = documents == null ? 0 : documents.length;
+        int uploadCount = uploadIds == null ? 0 : uploadIds.size();
         List<String> requiredDocs = getRequiredDocuments(serviceType);
         List<ApplicationDocument> items = new ArrayList<>();
 
-        for (int i = 0; i < documents.length; i++) {
-            MultipartFile file = documents[i];
-            if (file == null || file.isEmpty()) {
+        for (int i = 0; i < Math.max(fileCount, uploadCount); i++) {
+            String uploadId = i < uploadCount ? uploadIds.get(i) : null;
+            MultipartFile file = i < fileCount ? documents[i] : null;
+            boolean chunked = uploadId != null && !uploadId.isBlank();
+            if (!chunked && (file == null || file.isEmpty())) {
                 continue;
             }
             ApplicationDocument doc = new ApplicationDocument();
             doc.setApplication(app);
             doc.setSortOrder(i + 1);
             doc.setDocumentType(i < requiredDocs.size() ? requiredDocs.get(i) : "Document " + (i + 1));
-            doc.setFileName(sanitize(file.getOriginalFilename() == null ? "document" : file.getOriginalFilename()));
-            doc.setContentType(resolveUploadContentType(file));
-            doc.setData(file.getBytes());
+            if (chunked) {
+                UploadSession upload = uploadSessionService.completedUpload(app.getCustomer().getEmail(), uploadId.trim());
+                doc.setFileName(Names.sanitize(upload.getFileName()));
+                doc.setContentType(upload.getContentType() != null
+                        ? upload.getContentType()
+                        : resolveContentType(doc.getFileName()));
+                doc.setStorageKey(upload.getStorageKey());
+                doc.setFileSize(upload.getTotalSize());
+                claimedUploads.add(upload.getId());
+            } else {
+                doc.setFileName(Names.sanitize(file.getOriginalFilename() == null ? "document" : file.getOriginalFilename()));
+                UploadedContent content = storeContent(file);
+                storedContent.add(content);
+                doc.setContentType(content.detectedContentType() != null
+                        ? content.detectedContentType()
+                        : resolveUploadContentType(file));
+                doc.setStorageKey(content.key());
+                doc.setFileSize(content.size());
+            }
+            doc.setUploadedAt(LocalDateTime.now());
             items.add(doc);
         }
         return items;
     }
 
-    private String sanitize(String fileName) {
-        return fileName.replaceAll("[^a-zA-Z0-9._-]", "_");
+    // Streams the part Tomcat already spooled straight into the blob store; it is never held on-heap.
+    private UploadedContent storeContent(MultipartFile file) throws IOException {
+        return uploadPipeline.ingest(file.getInputStream());
+    }
+
+    // Only called once a conditional GET has been ruled out, so 304s never reach the blob store.
+    public Resource openContent(DocumentFile file) throws IOException {
+        String storageKey = file.storageKey();
+        if (storageKey == null || storageKey.isBlank()) {
+            throw new IllegalArgumentException("Document content not available.");
+        }
+        return blobStore.resource(storageKey);
     }
 
+
     private String resolveUploadContentType(MultipartFile file) {
         String contentType = file.getContentType();
         if (contentType != null && !contentType.isBlank()) {
@@ -419,8 +770,16 @@ public class PortalService {
         return "application/octet-stream";
     }
 
-    private String normalize(String email) {
-        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+
+    private Long parseId(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
     }
 
     private String trim(String value) {
@@ -458,11 +817,6 @@ public class PortalService {
         return "application/octet-stream";
     }
 
-    private boolean matchesAssignedCsc(String assignedCscEmail, String currentCscEmail) {
-        String normalizedAssigned = normalize(assignedCscEmail);
-        return normalizedAssigned.equals(currentCscEmail);
-    }
-
     public List<String> getServiceTypes() {
         return SERVICE_DEFINITIONS.stream().map(ServiceDefinition::name).toList();
     }
@@ -478,7 +832,9 @@ public class PortalService {
                 .orElse(List.of());
     }
 
-    public record DocumentFile(byte[] bytes, String fileName, String contentType) {
+    // Content is handed out as a Resource so responses stream from storage and can serve byte ranges.
+    // storageKey is the SHA-256 of the content, which makes it a strong validator for HTTP caching.
+    public record DocumentFile(String storageKey, String fileName, String contentType, Long size, LocalDateTime lastModified) {
     }
 
     private record ServiceDefinition(String name, List<String> requiredDocuments) {
@@ -0,0 +1,209 @@
+package com.edoc.portal.service;
+
+import com.edoc.portal.entity.Application;
+import com.edoc.portal.entity.ApplicationDocument;
+import com.edoc.portal.entity.PurgeTask;
+import com.edoc.portal.enums.PurgeTarget;
+import com.edoc.portal.repository.ApplicationDocumentRepository;
+import com.edoc.portal.repository.ApplicationRepository;
+import com.edoc.portal.repository.PurgeTaskRepository;
+import com.edoc.portal.repository.UserRepository;
+import com.edoc.portal.storage.BlobLedger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Removes the content of rejected applications and deleted customers outside the web request. The request only
+// flips the status and enqueues a task; the worker deletes rows in small transactions with a pause in between,
+// so a customer with hundreds of documents never holds locks or a pooled connection for long.
+@Service
+public class PurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(PurgeService.class);
+
+    private final PurgeTaskRepository purgeTaskRepository;
+    private final ApplicationRepository applicationRepository;
+    private final ApplicationDocumentRepository applicationDocumentRepository;
+    private final UserRepository userRepository;
+    private final BlobLedger blobLedger;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${portal.purge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${portal.purge.tasks-per-run:20}")
+    private int tasksPerRun;
+
+    @Value("${portal.purge.batch-size:50}")
+    private int batchSize;
+
+    @Value("${portal.purge.batch-pause:200ms}")
+    private Duration batchPause;
+
+    @Value("${portal.purge.retry-delay:5m}")
+    private Duration retryDelay;
+
+    public PurgeService(PurgeTaskRepository purgeTaskRepository,
+                        ApplicationRepository applicationRepository,
+                        ApplicationDocumentRepository applicationDocumentRepository,
+                        UserRepository userRepository,
+                        BlobLedger blobLedger,
+                        TransactionTemplate transactionTemplate) {
+        this.purgeTaskRepository = purgeTaskRepository;
+        this.applicationRepository = applicationRepository;
+        this.applicationDocumentRepository = applicationDocumentRepository;
+        this.userRepository = userRepository;
+        this.blobLedger = blobLedger;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // Call in the transaction that changes the status, so either both happen or neither does.
+    @Transactional
+    public void enqueue(PurgeTarget target, Long targetId) {
+        enqueueAll(target, List.of(targetId));
+    }
+
+    @Transactional
+    public void enqueueAll(PurgeTarget target, Collection<Long> targetIds) {
+        if (targetIds.isEmpty()) {
+            return;
+        }
+        Set<Long> queued = new HashSet<>(purgeTaskRepository.findQueuedTargetIds(target, targetIds));
+        LocalDateTime now = LocalDateTime.now();
+        List<PurgeTask> tasks = new ArrayList<>();
+        for (Long targetId : targetIds) {
+            if (queued.add(targetId)) {
+                PurgeTask task = new PurgeTask();
+                task.setTarget(target);
+                task.setTargetId(targetId);
+                task.setCreatedAt(now);
+                task.setNextAttemptAt(now);
+                tasks.add(task);
+            }
+        }
+        purgeTaskRepository.saveAll(tasks);
+    }
+
+    @Scheduled(fixedDelayString = "${portal.purge.interval:PT30S}", initialDelayString = "${portal.purge.interval:PT30S}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        for (PurgeTask task : purgeTaskRepository.findDue(LocalDateTime.now(), Limit.of(tasksPerRun))) {
+            try {
+                if (task.getTarget() == PurgeTarget.APPLICATION) {
+                    purgeRejectedApplication(task.getTargetId());
+                } else {
+                    purgeDeletedUser(task.getTargetId());
+                }
+                purgeTaskRepository.delete(task);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Purge of {} {} failed; retrying later.", task.getTarget(), task.getTargetId(), ex);
+                task.setAttempts(task.getAttempts() + 1);
+                task.setLastError(abbreviate(ex.toString()));
+                task.setNextAttemptAt(LocalDateTime.now().plus(retryDelay.multipliedBy(task.getAttempts())));
+                purgeTaskRepository.save(task);
+            }
+        }
+    }
+
+    private void purgeRejectedApplication(Long applicationId) throws InterruptedException {
+        boolean rejected = applicationRepository.findById(applicationId)
+                .map(app -> "REJECTED".equalsIgnoreCase(app.getStatus()))
+                .orElse(false);
+        if (!rejected) {
+            log.info("Application {} is no longer rejected; nothing to purge.", applicationId);
+            return;
+        }
+        purgeApplication(applicationId, false);
+    }
+
+    // Applications first, a batch at a time; the user row and its profile go last.
+    private void purgeDeletedUser(Long userId) throws InterruptedException {
+        boolean deleted = userRepository.findById(userId)
+                .map(user -> "DELETED".equalsIgnoreCase(user.getStatus()))
+                .orElse(false);
+        if (!deleted) {
+            log.info("User {} is not marked deleted; nothing to purge.", userId);
+            return;
+        }
+        List<Long> applicationIds;
+        do {
+            applicationIds = applicationRepository.findIdsByCustomerId(userId, Limit.of(batchSize));
+            for (Long applicationId : applicationIds) {
+                purgeApplication(applicationId, true);
+            }
+        } while (!applicationIds.isEmpty());
+        transactionTemplate.executeWithoutResult(status -> userRepository.findById(userId)
+                .filter(user -> "DELETED".equalsIgnoreCase(user.getStatus()))
+                .ifPresent(userRepository::delete));
+    }
+
+    private void purgeApplication(Long applicationId, boolean deleteApplication) throws InterruptedException {
+        while (Boolean.TRUE.equals(transactionTemplate.execute(status -> purgeDocumentBatch(applicationId)))) {
+            pause();
+        }
+        transactionTemplate.executeWithoutResult(status -> applicationRepository.findById(applicationId)
+                .ifPresent(app -> purgeIssuedDocument(app, deleteApplication)));
+        pause();
+    }
+
+    // Returns whether a full batch was removed, i.e. whether there may be more.
+    private boolean purgeDocumentBatch(Long applicationId) {
+        List<Long> ids = applicationDocumentRepository.findIdsByApplicationId(applicationId, Limit.of(batchSize));
+        if (ids.isEmpty()) {
+            return false;
+        }
+        List<ApplicationDocument> documents = applicationDocumentRepository.findWithRenditions(ids);
+        // One entry per dropped row: identical uploads share a key but each holds its own reference.
+        List<String> releasedKeys = new ArrayList<>();
+        documents.forEach(doc -> {
+            releasedKeys.add(doc.getStorageKey());
+            if (doc.getOriginalStorageKey() != null) {
+                releasedKeys.add(doc.getOriginalStorageKey());
+            }
+            doc.getRenditions().forEach(rendition -> releasedKeys.add(rendition.getStorageKey()));
+        });
+        applicationDocumentRepository.deleteAll(documents);
+        releasedKeys.forEach(blobLedger::release);
+        return ids.size() == batchSize;
+    }
+
+    private void purgeIssuedDocument(Application app, boolean deleteApplication) {
+        String issuedKey = app.getIssuedDocument() == null ? null : app.getIssuedDocument().getStorageKey();
+        if (deleteApplication) {
+            applicationRepository.delete(app);
+        } else {
+            app.setIssuedDocument(null);
+            app.setIssuedDocumentPath(null);
+            app.setDocumentPath(null);
+        }
+        blobLedger.release(issuedKey);
+    }
+
+    private void pause() throws InterruptedException {
+        if (!batchPause.isZero()) {
+            Thread.sleep(batchPause.toMillis());
+        }
+    }
+
+    private String abbreviate(String message) {
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
@@ -0,0 +1,140 @@
+package com.edoc.portal.service;
+
+import com.edoc.portal.entity.ApplicationDocument;
+import com.edoc.portal.entity.DocumentRendition;
+import com.edoc.portal.enums.RenditionKind;
+import com.edoc.portal.imaging.ImageProcessing;
+import com.edoc.portal.repository.ApplicationDocumentRepository;
+import com.edoc.portal.repository.DocumentRenditionRepository;
+import com.edoc.portal.storage.BlobLedger;
+import com.edoc.portal.storage.BlobStore;
+import com.edoc.portal.storage.StoredBlob;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Renders a small thumbnail and a screen-sized preview (JPEG) for image and PDF uploads; run by DocumentPipeline.
+@Service
+public class RenditionService {
+
+    private static final String RENDITION_CONTENT_TYPE = "image/jpeg";
+
+    private final ApplicationDocumentRepository applicationDocumentRepository;
+    private final DocumentRenditionRepository documentRenditionRepository;
+    private final BlobStore blobStore;
+    private final BlobLedger blobLedger;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${portal.renditions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${portal.renditions.thumbnail-size:240}")
+    private int thumbnailSize;
+
+    @Value("${portal.renditions.preview-size:1280}")
+    private int previewSize;
+
+    @Value("${portal.renditions.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    public RenditionService(ApplicationDocumentRepository applicationDocumentRepository,
+                            DocumentRenditionRepository documentRenditionRepository,
+                            BlobStore blobStore,
+                            BlobLedger blobLedger,
+                            TransactionTemplate transactionTemplate) {
+        this.applicationDocumentRepository = applicationDocumentRepository;
+        this.documentRenditionRepository = documentRenditionRepository;
+        this.blobStore = blobStore;
+        this.blobLedger = blobLedger;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public boolean hasPreview(Long documentId) {
+        return documentId != null && documentRenditionRepository.existsByDocumentIdAndKind(documentId, RenditionKind.PREVIEW);
+    }
+
+    // Content types render() produces previews for.
+    public List<String> renderableContentTypes() {
+        List<String> types = new ArrayList<>(ImageProcessing.decodableContentTypes());
+        types.add("application/pdf");
+        return types;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void render(Long documentId) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        ApplicationDocument doc = applicationDocumentRepository.findById(documentId).orElse(null);
+        if (doc == null || doc.getStorageKey() == null || !isRenderable(doc.getContentType())) {
+            return;
+        }
+        BufferedImage preview = null;
+        for (RenditionKind kind : new RenditionKind[]{RenditionKind.PREVIEW, RenditionKind.THUMBNAIL}) {
+            if (documentRenditionRepository.existsByDocumentIdAndKind(documentId, kind)) {
+                continue;
+            }
+            DocumentRendition shared = documentRenditionRepository
+                    .findFirstBySourceKeyAndKind(doc.getStorageKey(), kind).orElse(null);
+            if (shared != null) {
+                save(documentId, doc.getStorageKey(), kind, shared.getStorageKey(), shared.getFileSize(),
+                        shared.getWidth(), shared.getHeight());
+                continue;
+            }
+            if (preview == null) {
+                preview = decode(doc);
+            }
+            BufferedImage image = kind == RenditionKind.PREVIEW ? preview : ImageProcessing.fit(preview, thumbnailSize);
+            byte[] jpeg = ImageProcessing.encodeJpeg(image, jpegQuality);
+            StoredBlob blob = blobStore.put(new ByteArrayInputStream(jpeg));
+            save(documentId, doc.getStorageKey(), kind, blob.key(), blob.size(), image.getWidth(), image.getHeight());
+        }
+    }
+
+    private boolean isRenderable(String contentType) {
+        return "application/pdf".equals(contentType) || ImageProcessing.canDecode(contentType);
+    }
+
+    private BufferedImage decode(ApplicationDocument doc) throws IOException {
+        try (InputStream in = blobStore.open(doc.getStorageKey())) {
+            return "application/pdf".equals(doc.getContentType())
+                    ? ImageProcessing.renderPdfFirstPage(in, previewSize)
+                    : ImageProcessing.readScaled(in, previewSize);
+        }
+    }
+
+    private void save(Long documentId, String sourceKey, RenditionKind kind, String storageKey, Long fileSize,
+                      Integer width, Integer height) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                blobLedger.retain(storageKey, fileSize);
+                DocumentRendition rendition = new DocumentRendition();
+                rendition.setDocument(applicationDocumentRepository.getReferenceById(documentId));
+                rendition.setKind(kind);
+                rendition.setSourceKey(sourceKey);
+                rendition.setStorageKey(storageKey);
+                rendition.setContentType(RENDITION_CONTENT_TYPE);
+                rendition.setFileSize(fileSize);
+                rendition.setWidth(width);
+                rendition.setHeight(height);
+                rendition.setCreatedAt(LocalDateTime.now());
+                documentRenditionRepository.save(rendition);
+            });
+        } catch (RuntimeException ex) {
+            // Typically the document was rejected and removed while we were rendering.
+            blobLedger.discard(storageKey, fileSize);
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.edoc.portal.service;
+
+import com.edoc.portal.dto.UploadStatus;
+import com.edoc.portal.entity.UploadSession;
+import com.edoc.portal.repository.UploadSessionRepository;
+import com.edoc.portal.storage.BlobLedger;
+import com.edoc.portal.storage.UploadPipeline;
+import com.edoc.portal.storage.UploadedContent;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Resumable uploads: init, PUT each chunk at the offset the server reports, then complete. A chunk is spooled to
+// its own temp file before the session row is locked, so a slow connection never holds a database connection.
+@Service
+public class UploadSessionService {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadSessionService.class);
+    private static final int CLEANUP_BATCH_SIZE = 50;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final UploadPipeline uploadPipeline;
+    private final BlobLedger blobLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final Path partDir;
+
+    @Value("${portal.uploads.max-document-size:25MB}")
+    private DataSize maxDocumentSize;
+
+    @Value("${portal.uploads.chunk-size:1MB}")
+    private DataSize chunkSize;
+
+    @Value("${portal.uploads.session-ttl:24h}")
+    private Duration sessionTtl;
+
+    public UploadSessionService(UploadSessionRepository uploadSessionRepository,
+                                UploadPipeline uploadPipeline,
+                                BlobLedger blobLedger,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${file.upload-dir}") String uploadDir) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.uploadPipeline = uploadPipeline;
+        this.blobLedger = blobLedger;
+        this.transactionTemplate = transactionTemplate;
+        this.partDir = Paths.get(uploadDir).toAbsolutePath().normalize().resolve("sessions");
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(partDir);
+    }
+
+    public UploadStatus start(String ownerEmail, String fileName, String contentType, long totalSize) throws IOException {
+        if (totalSize <= 0) {
+            throw new IllegalArgumentException("Upload size must be greater than zero.");
+        }
+        if (totalSize > maxDocumentSize.toBytes()) {
+            throw new IllegalArgumentException("Document is too large. Maximum allowed size is " + maxDocumentSize + ".");
+        }
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setOwnerEmail(Names.normalize(ownerEmail));
+        session.setFileName(fileName == null || fileName.isBlank() ? "document" : fileName.trim());
+        session.setContentType(contentType == null || contentType.isBlank() ? null : contentType.trim());
+        session.setTotalSize(totalSize);
+        session.setCreatedAt(LocalDateTime.now());
+        session.setUpdatedAt(session.getCreatedAt());
+        Files.createFile(partFile(session.getId()));
+        return toStatus(uploadSessionRepository.save(session));
+    }
+
+    public UploadStatus status(String ownerEmail, String uploadId) {
+        return toStatus(find(ownerEmail, uploadId));
+    }
+
+    // The offset must equal the bytes received so far; anything else means the client lost track and should
+    // ask for the status and resume from there. A chunk re-sent after a lost response is rejected the same way.
+    public UploadStatus append(String ownerEmail, String uploadId, long offset, InputStream body) throws IOException {
+        UploadSession session = find(ownerEmail, uploadId);
+        checkOffset(session, offset);
+        long limit = Math.min(chunkSize.toBytes(), session.getTotalSize() - offset);
+        Path chunk = Files.createTempFile(partDir, "chunk-", ".part");
+        try {
+            long length = spool(body, chunk, limit);
+            if (length == 0) {
+                throw new IllegalArgumentException("Chunk is empty.");
+            }
+            UploadSession updated = transactionTemplate.execute(status -> {
+                UploadSession locked = uploadSessionRepository.findForUpdate(uploadId, Names.normalize(ownerEmail))
+                        .orElseThrow(() -> new IllegalArgumentException("Upload not found."));
+                checkOffset(locked, offset);
+                writeAt(partFile(uploadId), chunk, offset, length);
+                locked.setReceivedBytes(offset + length);
+                locked.setUpdatedAt(LocalDateTime.now());
+                return locked;
+            });
+            return toStatus(updated);
+        } finally {
+            Files.deleteIfExists(chunk);
+        }
+    }
+
+    // Moves the assembled bytes into the blob store; the session keeps one reference until it is claimed.
+    public UploadStatus complete(String ownerEmail, String uploadId) throws IOException {
+        UploadSession session = find(ownerEmail, uploadId);
+        if (session.isCompleted()) {
+            return toStatus(session);
+        }
+        if (session.getReceivedBytes() != session.getTotalSize()) {
+            throw new IllegalStateException("Upload is incomplete.");
+        }
+        UploadedContent content;
+        try (InputStream in = Files.newInputStream(partFile(uploadId))) {
+            content = uploadPipeline.ingest(in);
+        }
+        UploadSession completed;
+        try {
+            completed = transactionTemplate.execute(status -> {
+                UploadSession locked = uploadSessionRepository.findForUpdate(uploadId, Names.normalize(ownerEmail))
+                        .orElseThrow(() -> new IllegalArgumentException("Upload not found."));
+                if (locked.isCompleted()) {
+                    return locked;
+                }
+                blobLedger.retain(content.key(), content.size());
+                locked.setStorageKey(content.key());
+                locked.setTotalSize(content.size());
+                if (content.detectedContentType() != null) {
+                    locked.setContentType(content.detectedContentType());
+                }
+                locked.setCompleted(true);
+                locked.setUpdatedAt(LocalDateTime.now());
+                return locked;
+            });
+        } catch (RuntimeException ex) {
+            blobLedger.discard(content.key(), content.size());
+            throw ex;
+        }
+        Files.deleteIfExists(partFile(uploadId));
+        return toStatus(completed);
+    }
+
+    // Read-only check used while an application is assembled, before its transaction starts.
+    public UploadSession completedUpload(String ownerEmail, String uploadId) {
+        UploadSession session = find(ownerEmail, uploadId);
+        if (!session.isCompleted()) {
+            throw new IllegalArgumentException("Upload of " + session.getFileName() + " is not complete.");
+        }
+        return session;
+    }
+
+    // Call inside the transaction that saves the document row: the row retains the blob, the session lets go.
+    public void claim(String ownerEmail, String uploadId) {
+        UploadSession session = uploadSessionRepository.findForUpdate(uploadId, Names.normalize(ownerEmail))
+                .filter(UploadSession::isCompleted)
+                .orElseThrow(() -> new IllegalArgumentException("Upload is no longer available; please upload it again."));
+        blobLedger.release(session.getStorageKey());
+        uploadSessionRepository.delete(session);
+    }
+
+    @Scheduled(fixedDelayString = "${portal.uploads.cleanup-interval:PT1H}", initialDelayString = "${portal.uploads.cleanup-interval:PT1H}")
+    public void removeExpiredSessions() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(sessionTtl);
+        int removed = 0;
+        int removedInBatch;
+        List<String> ids;
+        do {
+            removedInBatch = 0;
+            ids = uploadSessionRepository.findIdsUpdatedBefore(cutoff, Limit.of(CLEANUP_BATCH_SIZE));
+            for (String id : ids) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> uploadSessionRepository.findForUpdate(id)
+                            .filter(session -> session.getUpdatedAt().isBefore(cutoff))
+                            .ifPresent(session -> {
+                                if (session.isCompleted()) {
+                                    blobLedger.release(session.getStorageKey());
+                                }
+                                uploadSessionRepository.delete(session);
+                            }));
+                    Files.deleteIfExists(partFile(id));
+                    removedInBatch++;
+                } catch (IOException | RuntimeException ex) {
+                    log.warn("Could not remove expired upload session {}.", id, ex);
+                }
+            }
+            removed += removedInBatch;
+        } while (ids.size() == CLEANUP_BATCH_SIZE && removedInBatch == ids.size());
+        if (removed > 0) {
+            log.info("Removed {} expired upload session(s).", removed);
+        }
+    }
+
+    private UploadSession find(String ownerEmail, String uploadId) {
+        return uploadSessionRepository.findByIdAndOwnerEmail(uploadId, Names.normalize(ownerEmail))
+                .orElseThrow(() -> new IllegalArgumentException("Upload not found."));
+    }
+
+    private void checkOffset(UploadSession session, long offset) {
+        if (session.isCompleted()) {
+            throw new IllegalStateException("Upload is already complete.");
+        }
+        if (offset != session.getReceivedBytes()) {
+            throw new IllegalStateException("Expected offset " + session.getReceivedBytes() + ".");
+        }
+    }
+
+    // Copies at most limit bytes; a longer body is refused rather than truncated.
+    private long spool(InputStream body, Path target, long limit) throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                total += read;
+                if (total > limit) {
+                    throw new IllegalArgumentException("Chunk is larger than the allowed " + limit + " bytes.");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return total;
+    }
+
+    // Writes at the offset and trims anything past it, so bytes from a chunk whose commit failed never linger.
+    private void writeAt(Path partFile, Path chunk, long offset, long length) {
+        try (FileChannel out = FileChannel.open(partFile, StandardOpenOption.WRITE);
+             FileChannel in = FileChannel.open(chunk, StandardOpenOption.READ)) {
+            long written = 0;
+            while (written < length) {
+                written += out.transferFrom(in, offset + written, length - written);
+            }
+            out.truncate(offset + length);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Path partFile(String uploadId) {
+        return partDir.resolve(UUID.fromString(uploadId) + ".part");
+    }
+
+    private UploadStatus toStatus(UploadSession session) {
+        return new UploadStatus(session.getId(),
+                session.getFileName(),
+                session.getTotalSize(),
+                session.getReceivedBytes(),
+                session.isCompleted(),
+                chunkSize.toBytes());
+    }
+}
@@ -0,0 +1,49 @@
+package com.edoc.portal.storage;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.InflaterInputStream;
+
+// How a blob's bytes sit on disk. The codec is part of the file name, so a read never needs a lookup, and the
+// storage key stays the digest of the original bytes whichever codec wrote the file. A DEFLATE file starts with
+// the original length as 8 bytes, followed by one zlib stream.
+public enum BlobCodec {
+
+    IDENTITY(""),
+    DEFLATE(".dfl");
+
+    static final int HEADER_SIZE = Long.BYTES;
+
+    private final String suffix;
+
+    BlobCodec(String suffix) {
+        this.suffix = suffix;
+    }
+
+    public String fileName(String key) {
+        return key + suffix;
+    }
+
+    // Unknown types are usually text (declarations, CSV); TIFF scans and PDFs are tried and kept only if they shrink.
+    static boolean worthCompressing(String sniffedContentType) {
+        return !ContentSniffer.isCompressedImage(sniffedContentType);
+    }
+
+    InputStream decode(InputStream stored) throws IOException {
+        if (this == IDENTITY) {
+            return stored;
+        }
+        InputStream buffered = new BufferedInputStream(stored, 64 * 1024);
+        buffered.skipNBytes(HEADER_SIZE);
+        return new InflaterInputStream(buffered);
+    }
+
+    long decodedLength(InputStream stored, long storedLength) throws IOException {
+        if (this == IDENTITY) {
+            return storedLength;
+        }
+        return new DataInputStream(stored).readLong();
+    }
+}
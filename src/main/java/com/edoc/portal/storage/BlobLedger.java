@@ -0,0 +1,99 @@
+package com.edoc.portal.storage;
+
+import com.edoc.portal.repository.BlobReferenceRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+
+// Reference counts for deduplicated blobs. Identical bytes share one key, so a file is only deleted once the
+// last document row pointing at it is gone. Retain and delete both hold the ledger row lock while they check
+// or remove the file, so a concurrent upload of the same bytes either keeps the file alive or fails loudly.
+@Component
+public class BlobLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobLedger.class);
+
+    private final BlobReferenceRepository blobReferenceRepository;
+    private final BlobStore blobStore;
+    private final TransactionTemplate newTransaction;
+
+    public BlobLedger(BlobReferenceRepository blobReferenceRepository,
+                      BlobStore blobStore,
+                      PlatformTransactionManager transactionManager) {
+        this.blobReferenceRepository = blobReferenceRepository;
+        this.blobStore = blobStore;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void backfill() {
+        int added = newTransaction.execute(status -> blobReferenceRepository.backfill());
+        if (added > 0) {
+            log.info("Counted references for {} blob(s) stored before the ledger existed.", added);
+        }
+    }
+
+    // Adds one reference; call in the same transaction that saves the row pointing at the key.
+    @Transactional
+    public void retain(String storageKey, Long fileSize) {
+        blobReferenceRepository.adjust(storageKey, fileSize, 1);
+        if (!blobStore.exists(storageKey)) {
+            // A release removed the file between our write and this retain; the caller's transaction rolls back.
+            throw new IllegalStateException("Stored document content was removed concurrently; please retry the upload.");
+        }
+    }
+
+    // Drops one reference; the file goes once the surrounding transaction commits and nothing references it.
+    @Transactional
+    public void release(String storageKey) {
+        if (storageKey == null || storageKey.isBlank()) {
+            return;
+        }
+        if (blobReferenceRepository.decrement(storageKey) == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteIfUnreferenced(storageKey);
+                }
+            });
+        } else {
+            deleteIfUnreferenced(storageKey);
+        }
+    }
+
+    // Removes content that was written but never retained, e.g. an upload rejected after sniffing.
+    public void discard(String storageKey, Long fileSize) {
+        newTransaction.executeWithoutResult(status -> blobReferenceRepository.adjust(storageKey, fileSize, 0));
+        deleteIfUnreferenced(storageKey);
+    }
+
+    private void deleteIfUnreferenced(String storageKey) {
+        try {
+            newTransaction.executeWithoutResult(status -> blobReferenceRepository.findForUpdate(storageKey)
+                    .filter(ref -> ref.getRefCount() <= 0)
+                    .ifPresent(ref -> {
+                        try {
+                            blobStore.delete(storageKey);
+                        } catch (IOException ex) {
+                            throw new IllegalStateException("Unable to delete stored document content.", ex);
+                        }
+                        blobReferenceRepository.delete(ref);
+                    }));
+        } catch (RuntimeException ex) {
+            log.warn("Could not delete unreferenced blob {}; it stays in the ledger at zero references.", storageKey, ex);
+        }
+    }
+}
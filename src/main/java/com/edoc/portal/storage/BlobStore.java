@@ -0,0 +1,19 @@
+package com.edoc.portal.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface BlobStore {
+
+    StoredBlob put(InputStream content) throws IOException;
+
+    InputStream open(String key) throws IOException;
+
+    Resource resource(String key) throws IOException;
+
+    boolean exists(String key);
+
+    void delete(String key) throws IOException;
+}
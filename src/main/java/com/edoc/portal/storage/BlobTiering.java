@@ -0,0 +1,158 @@
+package com.edoc.portal.storage;
+
+import com.edoc.portal.entity.PackedBlob;
+import com.edoc.portal.repository.BlobReferenceRepository;
+import com.edoc.portal.repository.PackedBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Moves content of long-closed applications out of the hot store into pack files, and drops hot copies that
+// reads rehydrated once they have sat unused, so the hot store tracks open work rather than history.
+@Component
+public class BlobTiering {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobTiering.class);
+    private static final List<String> CLOSED_STATUSES = List.of("SUCCESS", "APPROVED", "ISSUED");
+
+    private final TieredBlobStore blobStore;
+    private final PackStore packStore;
+    private final PackedBlobRepository packedBlobRepository;
+    private final BlobReferenceRepository blobReferenceRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${portal.tiering.enabled:true}")
+    private boolean enabled;
+
+    @Value("${portal.tiering.min-age:30d}")
+    private Duration minAge;
+
+    @Value("${portal.tiering.rehydrated-ttl:7d}")
+    private Duration rehydratedTtl;
+
+    @Value("${portal.tiering.batch-size:100}")
+    private int batchSize;
+
+    public BlobTiering(TieredBlobStore blobStore,
+                       PackStore packStore,
+                       PackedBlobRepository packedBlobRepository,
+                       BlobReferenceRepository blobReferenceRepository,
+                       TransactionTemplate transactionTemplate) {
+        this.blobStore = blobStore;
+        this.packStore = packStore;
+        this.packedBlobRepository = packedBlobRepository;
+        this.blobReferenceRepository = blobReferenceRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(cron = "${portal.tiering.cron:0 30 2 * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        int packed = packColdBlobs();
+        int evicted = evictRehydratedCopies();
+        if (packed > 0 || evicted > 0) {
+            log.info("Tiering moved {} blob(s) into packs and dropped {} rehydrated hot cop(ies).", packed, evicted);
+        }
+    }
+
+    // Walks the candidates once in key order, so keys that cannot be packed (no ledger reference, hot file gone)
+    // are passed over instead of being fetched again; they are retried on the next run.
+    int packColdBlobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(minAge);
+        int packed = 0;
+        int skipped = 0;
+        String afterKey = "";
+        List<String> keys;
+        do {
+            keys = packedBlobRepository.findColdCandidates(CLOSED_STATUSES, cutoff, afterKey, batchSize);
+            int packedInBatch = 0;
+            int failedInBatch = 0;
+            for (String key : keys) {
+                try {
+                    if (!pack(key)) {
+                        log.debug("Blob {} has no live ledger reference or no hot file; not packing it.", key);
+                        skipped++;
+                        continue;
+                    }
+                    packedInBatch++;
+                    blobStore.evictHotCopy(key);
+                } catch (IOException | RuntimeException ex) {
+                    log.warn("Could not move blob {} into a pack; it stays hot.", key, ex);
+                    failedInBatch++;
+                }
+            }
+            packed += packedInBatch;
+            // Nothing but failures, e.g. the pack volume is full: stop and let the next run try again.
+            if (failedInBatch > 0 && packedInBatch == 0) {
+                break;
+            }
+            if (!keys.isEmpty()) {
+                afterKey = keys.get(keys.size() - 1);
+            }
+        } while (keys.size() == batchSize);
+        if (skipped > 0) {
+            log.info("Tiering passed over {} cold blob(s) with no live ledger reference or no hot file.", skipped);
+        }
+        return packed;
+    }
+
+    // Holds the ledger row lock while packing so a concurrent last release cannot delete the blob underneath us.
+    private boolean pack(String key) {
+        Boolean done = transactionTemplate.execute(status -> {
+            if (blobReferenceRepository.findForUpdate(key).filter(ref -> ref.getRefCount() > 0).isEmpty()
+                    || packedBlobRepository.existsById(key)
+                    || !blobStore.isHot(key)) {
+                return false;
+            }
+            PackStore.Location location;
+            try (InputStream in = blobStore.open(key)) {
+                location = packStore.append(in);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            PackedBlob entry = new PackedBlob();
+            entry.setStorageKey(key);
+            entry.setPackFile(location.packFile());
+            entry.setPackOffset(location.offset());
+            entry.setPackedLength(location.packedLength());
+            entry.setFileSize(location.size());
+            entry.setPackedAt(LocalDateTime.now());
+            packedBlobRepository.save(entry);
+            return true;
+        });
+        return Boolean.TRUE.equals(done);
+    }
+
+    int evictRehydratedCopies() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(rehydratedTtl);
+        int evicted = 0;
+        List<String> keys;
+        do {
+            keys = packedBlobRepository.findRehydratedBefore(cutoff, Limit.of(batchSize));
+            for (String key : keys) {
+                try {
+                    blobStore.evictHotCopy(key);
+                    packedBlobRepository.markRehydrated(key, null);
+                    evicted++;
+                } catch (IOException | RuntimeException ex) {
+                    log.warn("Could not drop the rehydrated copy of blob {}.", key, ex);
+                    return evicted;
+                }
+            }
+        } while (keys.size() == batchSize);
+        return evicted;
+    }
+}
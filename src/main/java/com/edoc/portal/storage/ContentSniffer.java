@@ -0,0 +1,56 @@
+package com.edoc.portal.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+
+// Identifies stored content from its leading magic bytes instead of trusting client-supplied types.
+public final class ContentSniffer {
+
+    public static final int HEAD_SIZE = 16;
+
+    // Image formats whose payload is already compressed; deflating them again costs CPU and saves nothing.
+    private static final Set<String> COMPRESSED_IMAGE_TYPES = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
+
+    private ContentSniffer() {
+    }
+
+    public static String sniff(byte[] head, int length) {
+        if (startsWith(head, length, 0x25, 0x50, 0x44, 0x46)) {
+            return "application/pdf";
+        }
+        if (startsWith(head, length, 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(head, length, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, length, 0x47, 0x49, 0x46, 0x38)) {
+            return "image/gif";
+        }
+        if (length >= 12 && startsWith(head, length, 0x52, 0x49, 0x46, 0x46)
+                && "WEBP".equals(new String(head, 8, 4, StandardCharsets.US_ASCII))) {
+            return "image/webp";
+        }
+        if (startsWith(head, length, 0x49, 0x49, 0x2A, 0x00) || startsWith(head, length, 0x4D, 0x4D, 0x00, 0x2A)) {
+            return "image/tiff";
+        }
+        return null;
+    }
+
+    static boolean isCompressedImage(String contentType) {
+        return contentType != null && COMPRESSED_IMAGE_TYPES.contains(contentType.toLowerCase(Locale.ROOT));
+    }
+
+    private static boolean startsWith(byte[] head, int length, int... signature) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((head[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,229 @@
+package com.edoc.portal.storage;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+// Content-addressed store: every blob lives at <root>/ab/cd/<sha-256> so identical bytes share one file.
+// Compressible content is deflated on the way in (see BlobCodec) and inflated again on every read.
+@Component
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path tempDir;
+    private final boolean compressionEnabled;
+    private final double minSaving;
+
+    public FileSystemBlobStore(@Value("${file.upload-dir}") String uploadDir,
+                               @Value("${portal.storage.compression.enabled:true}") boolean compressionEnabled,
+                               @Value("${portal.storage.compression.min-saving:0.1}") double minSaving) {
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.tempDir = root.resolve("tmp");
+        this.compressionEnabled = compressionEnabled;
+        this.minSaving = minSaving;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(tempDir);
+    }
+
+    // One pass: the raw bytes and, for compressible content, a deflated copy are written side by side, and the
+    // deflated one is kept only when it saves at least min-saving of the size.
+    @Override
+    public StoredBlob put(InputStream content) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(content, BUFFER_SIZE);
+        boolean compress = compressionEnabled && BlobCodec.worthCompressing(sniff(in));
+        Path temp = Files.createTempFile(tempDir, "blob-", ".part");
+        Path deflatedTemp = compress ? Files.createTempFile(tempDir, "blob-", ".dfl.part") : null;
+        try {
+            MessageDigest digest = sha256();
+            long size = 0;
+            long deflatedSize = 0;
+            Deflater deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+            try (OutputStream out = Files.newOutputStream(temp);
+                 FileChannel deflatedChannel = compress
+                         ? FileChannel.open(deflatedTemp, StandardOpenOption.WRITE)
+                         : null) {
+                DeflaterOutputStream deflated = null;
+                if (compress) {
+                    deflatedChannel.position(BlobCodec.HEADER_SIZE);
+                    deflated = new DeflaterOutputStream(Channels.newOutputStream(deflatedChannel), deflater, BUFFER_SIZE);
+                }
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                    if (deflated != null) {
+                        deflated.write(buffer, 0, read);
+                    }
+                    size += read;
+                }
+                if (deflated != null) {
+                    deflated.finish();
+                    deflated.flush();
+                    deflatedChannel.write(ByteBuffer.allocate(BlobCodec.HEADER_SIZE).putLong(0, size), 0);
+                    deflatedSize = deflatedChannel.size();
+                }
+            } finally {
+                if (deflater != null) {
+                    deflater.end();
+                }
+            }
+            String key = HexFormat.of().formatHex(digest.digest());
+            boolean keepDeflated = compress && deflatedSize <= size * (1 - minSaving);
+            BlobCodec codec = keepDeflated ? BlobCodec.DEFLATE : BlobCodec.IDENTITY;
+            if (!exists(key)) {
+                Path target = resolve(key, codec);
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(keepDeflated ? deflatedTemp : temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException ignored) {
+                    // Another upload of the same content won the race; its file is identical.
+                }
+            }
+            return new StoredBlob(key, size);
+        } finally {
+            Files.deleteIfExists(temp);
+            if (deflatedTemp != null) {
+                Files.deleteIfExists(deflatedTemp);
+            }
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        BlobCodec codec = codecOf(key);
+        try {
+            return codec.decode(Files.newInputStream(resolve(key, codec)));
+        } catch (NoSuchFileException ex) {
+            throw new IllegalArgumentException("Stored document content not found.");
+        }
+    }
+
+    // Plain files go out as FileSystemResource: Spring MVC copies them through a buffer, but gets the length up front
+    // and seeks straight to a Range offset. Deflated ones are decoded on the way out.
+    @Override
+    public Resource resource(String key) throws IOException {
+        BlobCodec codec = codecOf(key);
+        Path path = resolve(key, codec);
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("Stored document content not found.");
+        }
+        if (codec == BlobCodec.IDENTITY) {
+            return new FileSystemResource(path);
+        }
+        long length;
+        try (InputStream in = Files.newInputStream(path)) {
+            length = codec.decodedLength(in, Files.size(path));
+        }
+        return new DecodedResource(key, path, codec, length);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key, BlobCodec.IDENTITY)) || Files.exists(resolve(key, BlobCodec.DEFLATE));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        for (BlobCodec codec : BlobCodec.values()) {
+            Files.deleteIfExists(resolve(key, codec));
+        }
+    }
+
+    private BlobCodec codecOf(String key) {
+        return Files.exists(resolve(key, BlobCodec.DEFLATE)) ? BlobCodec.DEFLATE : BlobCodec.IDENTITY;
+    }
+
+    private String sniff(BufferedInputStream in) throws IOException {
+        in.mark(ContentSniffer.HEAD_SIZE);
+        byte[] head = in.readNBytes(ContentSniffer.HEAD_SIZE);
+        in.reset();
+        return ContentSniffer.sniff(head, head.length);
+    }
+
+    private Path resolve(String key, BlobCodec codec) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid storage key.");
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(codec.fileName(key));
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available.", ex);
+        }
+    }
+
+    // Each getInputStream() decodes afresh, so Spring MVC can answer Range requests by skipping ahead.
+    private static final class DecodedResource extends AbstractResource {
+
+        private final String key;
+        private final Path path;
+        private final BlobCodec codec;
+        private final long length;
+
+        private DecodedResource(String key, Path path, BlobCodec codec, long length) {
+            this.key = key;
+            this.path = path;
+            this.codec = codec;
+            this.length = length;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return codec.decode(Files.newInputStream(path));
+        }
+
+        @Override
+        public boolean exists() {
+            return Files.isRegularFile(path);
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return Files.getLastModifiedTime(path).toMillis();
+        }
+
+        @Override
+        public String getDescription() {
+            return "stored blob [" + key + "]";
+        }
+    }
+}
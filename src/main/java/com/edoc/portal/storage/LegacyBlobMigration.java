@@ -0,0 +1,211 @@
+package com.edoc.portal.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Moves document bytes still held in the old LONGBLOB columns into the blob store, and issued-document
+// metadata still held on the applications row into issued_documents, in small batches.
+@Component
+public class LegacyBlobMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyBlobMigration.class);
+    private static final int BATCH_SIZE = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobStore blobStore;
+    private final BlobLedger blobLedger;
+
+    public LegacyBlobMigration(JdbcTemplate jdbcTemplate, BlobStore blobStore, BlobLedger blobLedger) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blobStore = blobStore;
+        this.blobLedger = blobLedger;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        try {
+            migrateColumn("application_documents", "data", "storage_key", "file_size");
+            migrateIssuedDocuments();
+        } catch (RuntimeException ex) {
+            log.error("Legacy document migration failed; it will be retried on next start.", ex);
+        }
+    }
+
+    private void migrateColumn(String table, String blobColumn, String keyColumn, String sizeColumn) {
+        String nullable = columnNullability(table, blobColumn);
+        if (nullable == null) {
+            return;
+        }
+        // The old column was NOT NULL for uploaded documents; new rows no longer write it.
+        if ("NO".equalsIgnoreCase(nullable)) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " MODIFY " + blobColumn + " LONGBLOB NULL");
+        }
+
+        int migrated = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM " + table + " WHERE " + keyColumn + " IS NULL AND " + blobColumn
+                            + " IS NOT NULL ORDER BY id LIMIT " + BATCH_SIZE,
+                    Long.class);
+            for (Long id : ids) {
+                StoredBlob blob = jdbcTemplate.query(
+                        "SELECT " + blobColumn + " FROM " + table + " WHERE id = ?",
+                        rs -> rs.next() ? store(rs.getBinaryStream(1)) : null,
+                        id);
+                if (blob == null) {
+                    continue;
+                }
+                blobLedger.retain(blob.key(), blob.size());
+                jdbcTemplate.update(
+                        "UPDATE " + table + " SET " + keyColumn + " = ?, " + sizeColumn + " = ?, "
+                                + blobColumn + " = NULL WHERE id = ?",
+                        blob.key(), blob.size(), id);
+                migrated++;
+            }
+        } while (!ids.isEmpty());
+
+        if (migrated > 0) {
+            log.info("Moved {} legacy document(s) from {}.{} into the blob store.", migrated, table, blobColumn);
+        }
+    }
+
+    private void migrateIssuedDocuments() {
+        boolean hasData = columnNullability("applications", "issued_document_data") != null;
+        boolean hasKey = columnNullability("applications", "issued_document_key") != null;
+        if (!hasData && !hasKey) {
+            return;
+        }
+        List<String> pending = new ArrayList<>();
+        if (hasData) {
+            pending.add("issued_document_data IS NOT NULL");
+        }
+        if (hasKey) {
+            pending.add("issued_document_key IS NOT NULL");
+        }
+        String pendingCondition = "issued_document_id IS NULL AND (" + String.join(" OR ", pending) + ")";
+
+        int migrated = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM applications WHERE " + pendingCondition + " ORDER BY id LIMIT " + BATCH_SIZE,
+                    Long.class);
+            for (Long id : ids) {
+                migrateIssuedDocument(id, hasData, hasKey);
+                migrated++;
+            }
+        } while (!ids.isEmpty());
+
+        if (migrated > 0) {
+            log.info("Moved {} legacy issued document(s) into issued_documents.", migrated);
+        }
+    }
+
+    private void migrateIssuedDocument(Long applicationId, boolean hasData, boolean hasKey) {
+        LegacyIssued legacy = jdbcTemplate.queryForObject(
+                "SELECT issued_document_name, issued_document_content_type, applied_date"
+                        + (hasKey ? ", issued_document_key, issued_document_size" : "")
+                        + " FROM applications WHERE id = ?",
+                (rs, rowNum) -> new LegacyIssued(
+                        rs.getString(1),
+                        rs.getString(2),
+                        rs.getTimestamp(3),
+                        hasKey ? rs.getString(4) : null,
+                        hasKey ? (Long) rs.getObject(5, Long.class) : null),
+                applicationId);
+        String key = legacy.key();
+        Long size = legacy.size();
+        if (key == null && hasData) {
+            StoredBlob blob = jdbcTemplate.query(
+                    "SELECT issued_document_data FROM applications WHERE id = ?",
+                    rs -> rs.next() ? store(rs.getBinaryStream(1)) : null,
+                    applicationId);
+            if (blob != null) {
+                key = blob.key();
+                size = blob.size();
+            }
+        }
+
+        Long issuedId = null;
+        if (key != null) {
+            String storageKey = key;
+            Long fileSize = size;
+            blobLedger.retain(storageKey, fileSize);
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(
+                        "INSERT INTO issued_documents (file_name, content_type, storage_key, file_size, uploaded_at)"
+                                + " VALUES (?, ?, ?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS);
+                ps.setString(1, legacy.fileName() == null || legacy.fileName().isBlank() ? "issued-document.pdf" : legacy.fileName());
+                ps.setString(2, legacy.contentType() == null || legacy.contentType().isBlank() ? "application/pdf" : legacy.contentType());
+                ps.setString(3, storageKey);
+                ps.setObject(4, fileSize);
+                ps.setTimestamp(5, legacy.appliedDate());
+                return ps;
+            }, keyHolder);
+            issuedId = keyHolder.getKey() == null ? null : keyHolder.getKey().longValue();
+        }
+
+        List<String> cleared = new ArrayList<>(List.of("issued_document_name = NULL", "issued_document_content_type = NULL"));
+        if (hasData) {
+            cleared.add("issued_document_data = NULL");
+        }
+        if (hasKey) {
+            cleared.add("issued_document_key = NULL");
+            cleared.add("issued_document_size = NULL");
+        }
+        jdbcTemplate.update(
+                "UPDATE applications SET issued_document_id = ?, " + String.join(", ", cleared) + " WHERE id = ?",
+                issuedId, applicationId);
+    }
+
+    private StoredBlob store(InputStream content) {
+        try (InputStream in = content) {
+            return blobStore.put(in);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private record LegacyIssued(String fileName, String contentType, Timestamp appliedDate, String key, Long size) {
+    }
+
+    // Returns the JDBC IS_NULLABLE flag of the column, or null when the column does not exist.
+    private String columnNullability(String table, String column) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String found = findColumn(metaData, connection.getCatalog(), table, column);
+            return found != null
+                    ? found
+                    : findColumn(metaData, connection.getCatalog(), table.toUpperCase(Locale.ROOT), column.toUpperCase(Locale.ROOT));
+        });
+    }
+
+    private String findColumn(DatabaseMetaData metaData, String catalog, String table, String column) throws SQLException {
+        try (ResultSet rs = metaData.getColumns(catalog, null, table, column)) {
+            return rs.next() ? rs.getString("IS_NULLABLE") : null;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.edoc.portal.storage;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// Append-only pack files for cold blobs: each entry is one zlib stream written at the end of the current pack,
+// which rolls over to a new file once it passes the configured size. Entries are never rewritten in place.
+@Component
+public class PackStore {
+
+    private static final Pattern PACK_NAME = Pattern.compile("pack-\\d{6}\\.pack");
+
+    private final Path packDir;
+
+    @Value("${portal.tiering.pack-max-size:256MB}")
+    private DataSize packMaxSize;
+
+    public PackStore(@Value("${file.upload-dir}") String uploadDir) {
+        this.packDir = Paths.get(uploadDir).toAbsolutePath().normalize().resolve("packs");
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(packDir);
+    }
+
+    public record Location(String packFile, long offset, long packedLength, long size) {
+    }
+
+    // Forces the bytes to disk before returning, so an index row is only ever written for a durable entry.
+    public synchronized Location append(InputStream content) throws IOException {
+        Path pack = currentPack();
+        try (FileChannel channel = FileChannel.open(pack, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long offset = channel.size();
+            channel.position(offset);
+            long size;
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+            try {
+                DeflaterOutputStream out = new DeflaterOutputStream(Channels.newOutputStream(channel), deflater, 64 * 1024);
+                size = content.transferTo(out);
+                out.finish();
+                out.flush();
+            } finally {
+                deflater.end();
+            }
+            long end = channel.position();
+            channel.force(true);
+            return new Location(pack.getFileName().toString(), offset, end - offset, size);
+        }
+    }
+
+    public InputStream open(String packFile, long offset) throws IOException {
+        if (packFile == null || !PACK_NAME.matcher(packFile).matches()) {
+            throw new IllegalArgumentException("Invalid pack file.");
+        }
+        FileChannel channel = FileChannel.open(packDir.resolve(packFile), StandardOpenOption.READ);
+        channel.position(offset);
+        return new InflaterInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+    }
+
+    private Path currentPack() throws IOException {
+        Path latest;
+        try (Stream<Path> files = Files.list(packDir)) {
+            latest = files.filter(path -> PACK_NAME.matcher(path.getFileName().toString()).matches())
+                    .max(Path::compareTo)
+                    .orElse(null);
+        }
+        if (latest != null && Files.size(latest) < packMaxSize.toBytes()) {
+            return latest;
+        }
+        int next = latest == null ? 1 : Integer.parseInt(latest.getFileName().toString().substring(5, 11)) + 1;
+        return packDir.resolve(String.format("pack-%06d.pack", next));
+    }
+}
@@ -0,0 +1,40 @@
+package com.edoc.portal.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Keeps a copy of the first bytes that pass through so the content type can be sniffed without a second read.
+class SniffingInputStream extends FilterInputStream {
+
+    private final byte[] head = new byte[ContentSniffer.HEAD_SIZE];
+    private int headLength;
+
+    SniffingInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0 && headLength < head.length) {
+            head[headLength++] = (byte) b;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int count = super.read(buffer, offset, length);
+        if (count > 0 && headLength < head.length) {
+            int copied = Math.min(count, head.length - headLength);
+            System.arraycopy(buffer, offset, head, headLength, copied);
+            headLength += copied;
+        }
+        return count;
+    }
+
+    String detectedContentType() {
+        return ContentSniffer.sniff(head, headLength);
+    }
+}
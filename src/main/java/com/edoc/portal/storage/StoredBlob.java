@@ -0,0 +1,4 @@
+package com.edoc.portal.storage;
+
+public record StoredBlob(String key, long size) {
+}
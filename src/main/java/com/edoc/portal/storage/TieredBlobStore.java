@@ -0,0 +1,83 @@
+package com.edoc.portal.storage;
+
+import com.edoc.portal.entity.PackedBlob;
+import com.edoc.portal.repository.PackedBlobRepository;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+
+// The store everything else talks to. Hot blobs are plain files; cold ones live in pack files and are
+// rehydrated into the hot store on first read, so callers never see the difference.
+@Primary
+@Component
+public class TieredBlobStore implements BlobStore {
+
+    private final FileSystemBlobStore hotStore;
+    private final PackStore packStore;
+    private final PackedBlobRepository packedBlobRepository;
+
+    public TieredBlobStore(FileSystemBlobStore hotStore, PackStore packStore, PackedBlobRepository packedBlobRepository) {
+        this.hotStore = hotStore;
+        this.packStore = packStore;
+        this.packedBlobRepository = packedBlobRepository;
+    }
+
+    @Override
+    public StoredBlob put(InputStream content) throws IOException {
+        return hotStore.put(content);
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        if (!hotStore.exists(key)) {
+            rehydrate(key);
+        }
+        return hotStore.open(key);
+    }
+
+    @Override
+    public Resource resource(String key) throws IOException {
+        if (!hotStore.exists(key)) {
+            rehydrate(key);
+        }
+        return hotStore.resource(key);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return hotStore.exists(key) || packedBlobRepository.existsById(key);
+    }
+
+    // Pack entries are append-only; the index row goes and the bytes become dead space in the pack.
+    @Override
+    public void delete(String key) throws IOException {
+        hotStore.delete(key);
+        packedBlobRepository.findById(key).ifPresent(packedBlobRepository::delete);
+    }
+
+    // Drops the hot copy of a packed blob; reads keep working from the pack.
+    void evictHotCopy(String key) throws IOException {
+        hotStore.delete(key);
+    }
+
+    boolean isHot(String key) {
+        return hotStore.exists(key);
+    }
+
+    private void rehydrate(String key) throws IOException {
+        PackedBlob packed = packedBlobRepository.findById(key)
+                .orElseThrow(() -> new IllegalArgumentException("Stored document content not found."));
+        StoredBlob restored;
+        try (InputStream in = packStore.open(packed.getPackFile(), packed.getPackOffset())) {
+            restored = hotStore.put(in);
+        }
+        if (!restored.key().equals(key)) {
+            throw new IOException("Packed content for " + key + " is corrupt.");
+        }
+        packedBlobRepository.markRehydrated(key, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,24 @@
+package com.edoc.portal.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Single pass over an upload: digest, byte count and magic-byte sniffing happen while the bytes stream into the store.
+@Component
+public class UploadPipeline {
+
+    private final BlobStore blobStore;
+
+    public UploadPipeline(BlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
+    public UploadedContent ingest(InputStream content) throws IOException {
+        try (SniffingInputStream in = new SniffingInputStream(content)) {
+            StoredBlob blob = blobStore.put(in);
+            return new UploadedContent(blob.key(), blob.size(), in.detectedContentType());
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.edoc.portal.storage;
+
+public record UploadedContent(String key, long size, String detectedContentType) {
+}
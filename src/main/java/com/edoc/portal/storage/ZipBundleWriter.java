@@ -0,0 +1,84 @@
+package com.edoc.portal.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Streams blobs into a ZIP one entry at a time, so memory use does not depend on the size of the bundle.
+@Component
+public class ZipBundleWriter {
+
+    private final BlobStore blobStore;
+
+    public ZipBundleWriter(BlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
+    public Bundle open(OutputStream out) {
+        return new Bundle(new ZipOutputStream(out));
+    }
+
+    public final class Bundle {
+
+        private final ZipOutputStream zip;
+        private final Set<String> names = new HashSet<>();
+
+        private Bundle(ZipOutputStream zip) {
+            this.zip = zip;
+        }
+
+        public void add(String name, String storageKey, String contentType) throws IOException {
+            try (InputStream in = blobStore.open(storageKey)) {
+                write(name, contentType, in);
+            }
+        }
+
+        public void add(String name, Path file, String contentType) throws IOException {
+            try (InputStream in = Files.newInputStream(file)) {
+                write(name, contentType, in);
+            }
+        }
+
+        private void write(String name, String contentType, InputStream in) throws IOException {
+            // Images and PDFs (whose streams are mostly compressed) go in as level-0 deflate: no compression work, only
+            // a few bytes of block framing. STORED entries would need size and CRC up front, i.e. a second read.
+            boolean compressed = ContentSniffer.isCompressedImage(contentType) || "application/pdf".equalsIgnoreCase(contentType);
+            zip.setLevel(compressed ? Deflater.NO_COMPRESSION : Deflater.BEST_SPEED);
+            zip.putNextEntry(new ZipEntry(uniqueName(name)));
+            in.transferTo(zip);
+            zip.closeEntry();
+        }
+
+        // Writes the central directory once every entry is in; the underlying stream belongs to the caller. A bundle
+        // abandoned on an error is never finished, so the client sees a broken archive rather than one that opens
+        // with the remaining entries silently missing.
+        public void finish() throws IOException {
+            zip.finish();
+            zip.flush();
+        }
+
+        private String uniqueName(String name) {
+            if (names.add(name)) {
+                return name;
+            }
+            int dot = name.lastIndexOf('.');
+            String base = dot > 0 ? name.substring(0, dot) : name;
+            String extension = dot > 0 ? name.substring(dot) : "";
+            for (int i = 2; ; i++) {
+                String candidate = base + " (" + i + ")" + extension;
+                if (names.add(candidate)) {
+                    return candidate;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+// "Select all" checkboxes for the bulk customer and application forms: a header box marked
+// data-select-all="<form id>" toggles every row checkbox that belongs to that form.
+(function () {
+    document.querySelectorAll('input[data-select-all]').forEach(function (toggle) {
+        var formId = toggle.getAttribute('data-select-all');
+        toggle.addEventListener('change', function () {
+            document.querySelectorAll('input[type="checkbox"][form="' + formId + '"]').forEach(function (box) {
+                box.checked = toggle.checked;
+            });
+        });
+    });
+    document.querySelectorAll('form[data-confirm]').forEach(function (form) {
+        form.addEventListener('submit', function (event) {
+            var submitter = event.submitter;
+            if (submitter && submitter.value === 'remove' && !window.confirm(form.getAttribute('data-confirm'))) {
+                event.preventDefault();
+            }
+        });
+    });
+})();
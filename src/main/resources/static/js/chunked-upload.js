@@ -0,0 +1,90 @@
+// Sends each selected document through the resumable upload API before the form is submitted, so a dropped
+// connection only costs the chunk in flight. Without JavaScript the form still posts the files as multipart.
+(function () {
+    var form = document.querySelector('form[data-chunked-upload]');
+    if (!form || !window.fetch || !window.Blob) {
+        return;
+    }
+    var base = form.getAttribute('data-chunked-upload');
+    var csrf = form.querySelector('input[name="_csrf"]');
+    var status = form.querySelector('.upload-status');
+    var headers = csrf ? { 'X-CSRF-TOKEN': csrf.value } : {};
+    var submitting = false;
+
+    function show(text) {
+        if (status) {
+            status.textContent = text;
+        }
+    }
+
+    function request(method, url, body) {
+        return fetch(url, { method: method, headers: headers, body: body, credentials: 'same-origin' });
+    }
+
+    function json(response) {
+        if (!response.ok && response.status !== 409) {
+            return response.text().then(function (text) { throw new Error(text || 'Upload failed.'); });
+        }
+        return response.json();
+    }
+
+    function sendFrom(file, session, attempt) {
+        if (session.complete || session.offset >= session.size) {
+            return request('POST', base + '/' + session.id + '/complete').then(json);
+        }
+        var end = Math.min(session.offset + session.chunkSize, session.size);
+        show('Uploading ' + file.name + ': ' + Math.floor(session.offset * 100 / session.size) + '%');
+        return request('PUT', base + '/' + session.id + '?offset=' + session.offset, file.slice(session.offset, end))
+            .then(json)
+            .then(function (next) { return sendFrom(file, next, 0); })
+            .catch(function (error) {
+                if (attempt >= 5) {
+                    throw error;
+                }
+                // Ask where the server got to and carry on from there after a short wait.
+                return new Promise(function (resolve) { setTimeout(resolve, 1000 * (attempt + 1)); })
+                    .then(function () { return request('GET', base + '/' + session.id).then(json); })
+                    .then(function (current) { return sendFrom(file, current, attempt + 1); });
+            });
+    }
+
+    function upload(file) {
+        var params = new URLSearchParams({ fileName: file.name, contentType: file.type || '', size: String(file.size) });
+        return request('POST', base + '?' + params.toString()).then(json).then(function (session) {
+            return sendFrom(file, session, 0);
+        });
+    }
+
+    form.addEventListener('submit', function (event) {
+        if (submitting) {
+            return;
+        }
+        event.preventDefault();
+        var inputs = Array.prototype.slice.call(form.querySelectorAll('input[type="file"][name="documents"]'));
+        var chain = Promise.resolve([]);
+        inputs.forEach(function (input) {
+            chain = chain.then(function (ids) {
+                var file = input.files && input.files[0];
+                if (!file) {
+                    return ids.concat('');
+                }
+                return upload(file).then(function (done) { return ids.concat(done.id); });
+            });
+        });
+        chain.then(function (ids) {
+            ids.forEach(function (id) {
+                var hidden = document.createElement('input');
+                hidden.type = 'hidden';
+                hidden.name = 'uploadIds';
+                hidden.value = id;
+                form.appendChild(hidden);
+            });
+            inputs.forEach(function (input) { input.disabled = true; });
+            show('Submitting application...');
+            submitting = true;
+            form.submit();
+        }).catch(function (error) {
+            show(error.message || 'Upload failed. Please try again.');
+        });
+    });
+})();
@@ -0,0 +1,87 @@
+package com.edoc.portal.repository;
+
+import com.edoc.portal.entity.Application;
+import com.edoc.portal.entity.ApplicationDocument;
+import com.edoc.portal.entity.User;
+import com.edoc.portal.enums.Role;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// An application with its documents must go out as one insert per table, not one round-trip per row.
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ApplicationRepositoryBatchingTest {
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = new User();
+        customer.setName("Customer");
+        customer.setEmail("customer@example.com");
+        customer.setPassword("secret");
+        customer.setRole(Role.CUSTOMER);
+        customer.setStatus("ACTIVE");
+        entityManager.persist(customer);
+        // The first save of each kind also fetches an id block; later saves draw from it.
+        applicationRepository.save(application(1));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void applicationWithEightDocumentsIsInsertedInTwoStatements() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        applicationRepository.save(application(8));
+        entityManager.flush();
+
+        assertEquals(9, statistics.getEntityInsertCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private Application application(int documentCount) {
+        Application app = new Application();
+        app.setCustomer(entityManager.getEntityManager().getReference(User.class, customer.getId()));
+        app.setApplicantName("Applicant");
+        app.setServiceType("Income Certificate");
+        app.setStatus("PENDING");
+        app.setAppliedDate(LocalDateTime.now());
+        List<ApplicationDocument> documents = new ArrayList<>();
+        for (int i = 0; i < documentCount; i++) {
+            ApplicationDocument doc = new ApplicationDocument();
+            doc.setApplication(app);
+            doc.setSortOrder(i);
+            doc.setDocumentType("Document " + i);
+            doc.setFileName("document-" + i + ".pdf");
+            doc.setContentType("application/pdf");
+            doc.setStorageKey("%064d".formatted(i));
+            doc.setFileSize(1024L);
+            doc.setUploadedAt(app.getAppliedDate());
+            documents.add(doc);
+        }
+        app.setUploadedDocumentEntities(documents);
+        return app;
+    }
+}
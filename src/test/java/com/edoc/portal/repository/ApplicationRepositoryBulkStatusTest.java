@@ -0,0 +1,96 @@
+package com.edoc.portal.repository;
+
+import com.edoc.portal.entity.Application;
+import com.edoc.portal.entity.User;
+import com.edoc.portal.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The bulk status UPDATE must leave alone rows that changed since the CSC listed them or that belong to another CSC.
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+class ApplicationRepositoryBulkStatusTest {
+
+    private static final String CSC_EMAIL = "csc@example.com";
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = customer("customer@example.com", CSC_EMAIL);
+    }
+
+    @Test
+    void updatesRowsAtTheListedVersion() {
+        Long id = application(customer).getId();
+        entityManager.clear();
+
+        int changed = applicationRepository.updateStatusesForCsc(List.of(id), 0, List.of("PENDING"), "APPLIED", CSC_EMAIL);
+
+        assertEquals(1, changed);
+        Application reloaded = entityManager.find(Application.class, id);
+        assertEquals("APPLIED", reloaded.getStatus());
+        assertEquals(1, reloaded.getVersion());
+    }
+
+    @Test
+    void skipsRowsWhoseVersionChanged() {
+        Application app = application(customer);
+        app.setMessage("Edited after the list was rendered");
+        entityManager.flush();
+        entityManager.clear();
+
+        int changed = applicationRepository.updateStatusesForCsc(List.of(app.getId()), 0, List.of("PENDING"), "APPLIED", CSC_EMAIL);
+
+        assertEquals(0, changed);
+        assertEquals("PENDING", entityManager.find(Application.class, app.getId()).getStatus());
+    }
+
+    @Test
+    void skipsApplicationsOfAnotherCsc() {
+        Long id = application(customer("other@example.com", "other-csc@example.com")).getId();
+        entityManager.clear();
+
+        int changed = applicationRepository.updateStatusesForCsc(List.of(id), 0, List.of("PENDING"), "APPLIED", CSC_EMAIL);
+
+        assertEquals(0, changed);
+        assertEquals("PENDING", entityManager.find(Application.class, id).getStatus());
+    }
+
+    private User customer(String email, String cscEmail) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setRole(Role.CUSTOMER);
+        user.setStatus("ACTIVE");
+        user.setFullName("Customer");
+        user.setMobileNumber("9999999999");
+        user.setAssignedCscEmail(cscEmail);
+        return entityManager.persist(user);
+    }
+
+    private Application application(User owner) {
+        Application app = new Application();
+        app.setCustomer(owner);
+        app.setApplicantName("Applicant");
+        app.setServiceType("Income Certificate");
+        app.setStatus("PENDING");
+        app.setAppliedDate(LocalDateTime.now());
+        entityManager.persist(app);
+        entityManager.flush();
+        return app;
+    }
+}
@@ -0,0 +1,81 @@
+package com.edoc.portal.repository;
+
+import com.edoc.portal.dto.CustomerSummary;
+import com.edoc.portal.entity.User;
+import com.edoc.portal.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// A bulk customer action may only see and change customers assigned to the acting CSC.
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+class UserRepositoryBulkStatusTest {
+
+    private static final String CSC_EMAIL = "csc@example.com";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User own;
+    private User foreign;
+
+    @BeforeEach
+    void setUp() {
+        own = customer("own@example.com", CSC_EMAIL);
+        foreign = customer("foreign@example.com", "other-csc@example.com");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void lookupReturnsOnlyOwnCustomers() {
+        List<CustomerSummary> found = userRepository.findCustomersForCscByIds(List.of(own.getId(), foreign.getId()), CSC_EMAIL);
+
+        assertEquals(List.of(own.getId()), found.stream().map(CustomerSummary::id).toList());
+    }
+
+    @Test
+    void updateIgnoresCustomersOfAnotherCsc() {
+        int changed = userRepository.updateCustomerStatuses(List.of(own.getId(), foreign.getId()), CSC_EMAIL, "ACTIVE");
+
+        assertEquals(1, changed);
+        assertEquals("ACTIVE", entityManager.find(User.class, own.getId()).getStatus());
+        assertEquals("PENDING", entityManager.find(User.class, foreign.getId()).getStatus());
+    }
+
+    @Test
+    void updateNeverBringsBackDeletedCustomers() {
+        User deleted = entityManager.find(User.class, own.getId());
+        deleted.setStatus("DELETED");
+        entityManager.flush();
+        entityManager.clear();
+
+        int changed = userRepository.updateCustomerStatuses(List.of(own.getId()), CSC_EMAIL, "ACTIVE");
+
+        assertEquals(0, changed);
+        assertEquals("DELETED", entityManager.find(User.class, own.getId()).getStatus());
+        assertEquals(List.of("DELETED"), userRepository.findCustomersForCscByIdsIncludingDeleted(List.of(own.getId()), CSC_EMAIL)
+                .stream().map(CustomerSummary::status).toList());
+    }
+
+    private User customer(String email, String cscEmail) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setRole(Role.CUSTOMER);
+        user.setStatus("PENDING");
+        user.setFullName("Customer");
+        user.setMobileNumber("9999999999");
+        user.setAssignedCscEmail(cscEmail);
+        return entityManager.persist(user);
+    }
+}
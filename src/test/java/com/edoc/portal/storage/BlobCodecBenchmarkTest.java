@@ -0,0 +1,174 @@
+package com.edoc.portal.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Compression ratio and throughput of the blob store on a sample corpus. Not part of the normal build:
+//   mvn test -Dtest=BlobCodecBenchmarkTest -Dbenchmark=true [-Dbenchmark.corpus=/path/to/sample/files]
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BlobCodecBenchmarkTest {
+
+    private static final int ROUNDS = 5;
+
+    @TempDir
+    Path storeDir;
+
+    @Test
+    void reportsRatioAndThroughput() throws IOException {
+        List<Sample> corpus = corpus();
+        FileSystemBlobStore plain = store("plain", false);
+        FileSystemBlobStore compressing = store("deflate", true);
+
+        System.out.printf("%-28s %12s %12s %7s %12s %12s %12s%n",
+                "sample", "bytes", "stored", "ratio", "write MB/s", "read MB/s", "plain read");
+        long totalBytes = 0;
+        long totalStored = 0;
+        for (Sample sample : corpus) {
+            StoredBlob blob = compressing.put(new ByteArrayInputStream(sample.bytes()));
+            plain.put(new ByteArrayInputStream(sample.bytes()));
+            try (InputStream in = compressing.open(blob.key())) {
+                assertArrayEquals(sample.bytes(), in.readAllBytes(), sample.name() + " did not round-trip");
+            }
+            assertEquals(sample.bytes().length, compressing.resource(blob.key()).contentLength());
+
+            long stored = storedSize(storeDir.resolve("deflate"), blob.key());
+            double writeRate = rate(sample.bytes().length, () -> {
+                compressing.delete(blob.key());
+                compressing.put(new ByteArrayInputStream(sample.bytes()));
+            });
+            double readRate = rate(sample.bytes().length, () -> drain(compressing.open(blob.key())));
+            double plainReadRate = rate(sample.bytes().length, () -> drain(plain.open(blob.key())));
+            System.out.printf("%-28s %12d %12d %6.2fx %12.1f %12.1f %12.1f%n",
+                    sample.name(), sample.bytes().length, stored, (double) sample.bytes().length / stored,
+                    writeRate, readRate, plainReadRate);
+            totalBytes += sample.bytes().length;
+            totalStored += stored;
+        }
+        System.out.printf("%-28s %12d %12d %6.2fx%n", "total", totalBytes, totalStored, (double) totalBytes / totalStored);
+    }
+
+    private FileSystemBlobStore store(String name, boolean compression) throws IOException {
+        FileSystemBlobStore store = new FileSystemBlobStore(storeDir.resolve(name).toString(), compression, 0.1);
+        store.init();
+        return store;
+    }
+
+    private List<Sample> corpus() throws IOException {
+        String dir = System.getProperty("benchmark.corpus");
+        if (dir != null && !dir.isBlank()) {
+            List<Sample> samples = new ArrayList<>();
+            try (Stream<Path> files = Files.list(Path.of(dir))) {
+                for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+                    samples.add(new Sample(file.getFileName().toString(), Files.readAllBytes(file)));
+                }
+            }
+            return samples;
+        }
+        Random random = new Random(42);
+        return List.of(
+                new Sample("text.pdf (uncompressed)", textPdf(random, 2 * 1024 * 1024)),
+                new Sample("declaration.txt", declaration(random, 200 * 1024)),
+                new Sample("scan.tiff (8-bit gray)", grayTiff(random, 2000, 2000)),
+                new Sample("photo.jpg (entropy-coded)", jpegLike(random, 1024 * 1024)));
+    }
+
+    private byte[] textPdf(Random random, int size) {
+        StringBuilder pdf = new StringBuilder("%PDF-1.4\n1 0 obj << /Length 0 >>\nstream\nBT /F1 11 Tf\n");
+        while (pdf.length() < size) {
+            pdf.append("72 ").append(700 - random.nextInt(650)).append(" Td (Applicant ")
+                    .append(random.nextInt(100_000)).append(" resides at ward ").append(random.nextInt(40))
+                    .append(" and declares the above particulars true.) Tj\n");
+        }
+        pdf.append("ET\nendstream\nendobj\n%%EOF\n");
+        return pdf.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private byte[] declaration(Random random, int size) {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < size) {
+            text.append("I, the undersigned, resident of village no. ").append(random.nextInt(500))
+                    .append(", hereby declare that the information furnished is correct.\r\n");
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Little-endian TIFF magic followed by a smooth page with a little sensor noise, like a flatbed scan.
+    private byte[] grayTiff(Random random, int width, int height) {
+        byte[] image = new byte[8 + width * height];
+        image[0] = 0x49;
+        image[1] = 0x49;
+        image[2] = 0x2A;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int paper = 235 + random.nextInt(6);
+                boolean ink = (y / 24) % 3 == 0 && (x / 9) % 4 != 0;
+                image[8 + y * width + x] = (byte) (ink ? 30 + random.nextInt(20) : paper);
+            }
+        }
+        return image;
+    }
+
+    private byte[] jpegLike(Random random, int size) {
+        byte[] jpeg = new byte[size];
+        random.nextBytes(jpeg);
+        jpeg[0] = (byte) 0xFF;
+        jpeg[1] = (byte) 0xD8;
+        jpeg[2] = (byte) 0xFF;
+        return jpeg;
+    }
+
+    private long storedSize(Path root, String key) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(key))
+                    .findFirst()
+                    .map(path -> {
+                        try {
+                            return Files.size(path);
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                    })
+                    .orElseThrow();
+        }
+    }
+
+    private double rate(long bytes, IoAction action) throws IOException {
+        action.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            action.run();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return bytes * ROUNDS / seconds / (1024 * 1024);
+    }
+
+    private void drain(InputStream in) throws IOException {
+        try (in) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    private record Sample(String name, byte[] bytes) {
+    }
+}
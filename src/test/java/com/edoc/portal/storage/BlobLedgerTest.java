@@ -0,0 +1,96 @@
+package com.edoc.portal.storage;
+
+import com.edoc.portal.repository.BlobReferenceRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Shared content must outlive every reference but the last. The ledger upserts with MySQL syntax, so H2 runs in
+// MySQL mode, and the tests run outside a test transaction because deletes happen after commit.
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledger;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({BlobLedger.class, FileSystemBlobStore.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BlobLedgerTest {
+
+    @TempDir
+    static Path uploadDir;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("file.upload-dir", uploadDir::toString);
+    }
+
+    @Autowired
+    private BlobLedger blobLedger;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private BlobReferenceRepository blobReferenceRepository;
+
+    @Test
+    void releaseDeletesContentOnlyAtZeroReferences() throws IOException {
+        StoredBlob blob = put("shared by two documents");
+        blobLedger.retain(blob.key(), blob.size());
+        blobLedger.retain(blob.key(), blob.size());
+
+        blobLedger.release(blob.key());
+
+        assertTrue(blobStore.exists(blob.key()));
+        assertEquals(1, blobReferenceRepository.findById(blob.key()).orElseThrow().getRefCount());
+
+        blobLedger.release(blob.key());
+
+        assertFalse(blobStore.exists(blob.key()));
+        assertTrue(blobReferenceRepository.findById(blob.key()).isEmpty());
+    }
+
+    @Test
+    void discardKeepsContentThatIsStillReferenced() throws IOException {
+        StoredBlob blob = put("retained by an earlier upload");
+        blobLedger.retain(blob.key(), blob.size());
+
+        blobLedger.discard(blob.key(), blob.size());
+
+        assertTrue(blobStore.exists(blob.key()));
+        assertEquals(1, blobReferenceRepository.findById(blob.key()).orElseThrow().getRefCount());
+    }
+
+    @Test
+    void discardDeletesContentThatWasNeverRetained() throws IOException {
+        StoredBlob blob = put("rejected before it was retained");
+
+        blobLedger.discard(blob.key(), blob.size());
+
+        assertFalse(blobStore.exists(blob.key()));
+        assertTrue(blobReferenceRepository.findById(blob.key()).isEmpty());
+    }
+
+    private StoredBlob put(String content) throws IOException {
+        return blobStore.put(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}